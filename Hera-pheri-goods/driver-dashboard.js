@@ -4255,8 +4255,13 @@ document.addEventListener('DOMContentLoaded', function() {
             console.log("Vehicles data received:", data);
             
             if (data && Array.isArray(data.vehicles)) {
-                // Update vehicles array with fetched data
-                vehicles = data.vehicles;
+                // Update vehicles array with fetched data. The API sends numeric ids and no
+                // status; the dashboard matches ids against data-vehicle attributes (strings)
+                vehicles = data.vehicles.map(vehicle => ({
+                    ...vehicle,
+                    id: String(vehicle.id),
+                    status: vehicle.status || 'active'
+                }));
                 
                 // Check for any cached vehicle data in localStorage and merge it
                 vehicles.forEach(vehicle => {
@@ -5485,12 +5490,16 @@ function adminSearchVehicles() {
     const adminResultsBody = document.getElementById('adminResultsBody');
     adminResultsBody.innerHTML = '<tr><td colspan="5" class="text-center">Searching...</td></tr>';
 
-    // Make API call to search for vehicles
-    fetch(`${API_BASE_URL}registration/search?term=${encodeURIComponent(searchInput)}`)
+    // Numbers are registration IDs; anything else goes to the fuzzy name/plate/phone search
+    const isId = /^\d+$/.test(searchInput);
+    const url = isId
+        ? `${API_BASE_URL}registration/search?term=${encodeURIComponent(searchInput)}`
+        : `${API_BASE_URL}registration/search/ranked?q=${encodeURIComponent(searchInput)}&size=50`;
+    fetch(url)
         .then(response => response.json())
         .then(data => {
             console.log('Admin search results:', data);
-            displayAdminSearchResults(data);
+            displayAdminSearchResults(isId ? data : (data.results || []));
         })
         .catch(error => {
             console.error('Error searching vehicles:', error);
@@ -9,6 +9,12 @@ document.addEventListener('DOMContentLoaded', function() {
     const vehiclesGrid = document.getElementById('vehiclesGrid');
     const resultsCount = document.getElementById('resultsCount');
     const noResults = document.getElementById('noResults');
+    const loadMoreBtn = document.getElementById('loadMoreBtn');
+
+    // Loads and appends the next page of the current search; null when there is none
+    let loadNextSearchPage = null;
+    // Bumped by every new search so a late page of an older one is dropped
+    let searchGeneration = 0;
     const loadingOverlay = document.getElementById('loadingOverlay');
     const sortSelect = document.getElementById('sortBy');
     const vehicleModal = document.getElementById('vehicleModal');
@@ -492,29 +498,47 @@ document.addEventListener('DOMContentLoaded', function() {
         const fullUrl = `${apiUrl}?${queryParams.toString()}`;
         console.log('Full API URL with all parameters:', fullUrl);
         
-        // Try API call with a timeout
-        fetch(fullUrl, {
-            method: 'GET',
-            headers: {
-                'Content-Type': 'application/json',
-                'Accept': 'application/json'
-            },
-            // Set a longer timeout
-            signal: AbortSignal.timeout(20000) // 20 second timeout
-        })
-        .then(response => {
-            console.log('Spring Boot API response status:', response.status);
-            
-            if (!response.ok) {
-                throw new Error(`Server error: ${response.status} ${response.statusText}`);
-            }
-            
-            return response.json().catch(error => {
-                console.error('Error parsing JSON:', error);
-                throw new Error('Invalid JSON response from server');
+        // Fetch one page of results; the API is cursor-paginated
+        const fetchPage = (cursor) => {
+            const pageUrl = cursor ? `${fullUrl}&cursor=${encodeURIComponent(cursor)}` : fullUrl;
+            return fetch(pageUrl, {
+                method: 'GET',
+                headers: {
+                    'Content-Type': 'application/json',
+                    'Accept': 'application/json'
+                },
+                // Set a longer timeout
+                signal: AbortSignal.timeout(20000) // 20 second timeout
+            })
+            .then(response => {
+                console.log('Spring Boot API response status:', response.status);
+                
+                if (!response.ok) {
+                    throw new Error(`Server error: ${response.status} ${response.statusText}`);
+                }
+                
+                return response.json().catch(error => {
+                    console.error('Error parsing JSON:', error);
+                    throw new Error('Invalid JSON response from server');
+                });
             });
-        })
+        };
+        
+        // Only the first page is fetched now; the next one when the user reaches the end of the list
+        const generation = ++searchGeneration;
+        const setNextPage = (cursor) => {
+            loadNextSearchPage = cursor ? () => fetchPage(cursor).then(page => {
+                if (generation !== searchGeneration) return;
+                displayResults(sortResults(page.vehicles || []), true);
+                setNextPage(page.success ? page.nextCursor : null);
+            }) : null;
+            loadMoreBtn.style.display = cursor ? 'block' : 'none';
+        };
+        setNextPage(null);
+        
+        fetchPage(null)
         .then(data => {
+            if (generation !== searchGeneration) return;
             console.log('Search results from Spring Boot API:', data);
             
             if (data.success && data.vehicles && data.vehicles.length > 0) {
@@ -546,6 +570,7 @@ document.addEventListener('DOMContentLoaded', function() {
                 
                 // Display the results
                 displayResults(sortedVehicles);
+                setNextPage(data.nextCursor);
             } else {
                 console.log('No vehicles found through Spring Boot API');
                 displayResults([]);
@@ -573,6 +598,11 @@ document.addEventListener('DOMContentLoaded', function() {
         const sortBy = sortSelect ? sortSelect.value : 'newest';
         console.log(`Sorting ${results.length} results by: ${sortBy}`);
         
+        // The server already ranks results (premium, trust, recency, pincode match)
+        if (sortBy === 'relevance') {
+            return [...results];
+        }
+        
         const sortedResults = [...results]; // Create a copy to avoid modifying the original
         
         // We no longer need to fetch membership from users table
@@ -680,8 +710,33 @@ document.addEventListener('DOMContentLoaded', function() {
         return sortedResults;
     }
     
-    // Function to display search results
-    function displayResults(results) {
+    // Fetch the next page on click, or as soon as the button scrolls into view
+    function loadMoreResults() {
+        if (!loadNextSearchPage || loadMoreBtn.disabled) return;
+        loadMoreBtn.disabled = true;
+        loadMoreBtn.textContent = 'Loading...';
+        loadNextSearchPage()
+        .catch(error => {
+            console.error('Error loading more vehicles:', error);
+            showToast('Could not load more vehicles. Please try again.', 'error');
+        })
+        .finally(() => {
+            loadMoreBtn.disabled = false;
+            loadMoreBtn.textContent = 'Load more vehicles';
+        });
+    }
+
+    if (loadMoreBtn) {
+        loadMoreBtn.addEventListener('click', loadMoreResults);
+        if ('IntersectionObserver' in window) {
+            new IntersectionObserver(entries => {
+                if (entries.some(entry => entry.isIntersecting)) loadMoreResults();
+            }, { rootMargin: '400px' }).observe(loadMoreBtn);
+        }
+    }
+    
+    // Function to display search results; with append, adds a further page below the current one
+    function displayResults(results, append) {
         // Hide loading overlay
         loadingOverlay.style.display = 'none';
         
@@ -749,17 +804,19 @@ document.addEventListener('DOMContentLoaded', function() {
             });
             
             // Clear previous results
-            vehiclesGrid.innerHTML = '';
+            if (!append) {
+                vehiclesGrid.innerHTML = '';
+                searchResults = [];
+            }
+            searchResults = searchResults.concat(normalizedResults);
             
             // Update results count
-            resultsCount.textContent = `Showing ${normalizedResults.length} vehicles`;
+            resultsCount.textContent = `Showing ${searchResults.length} vehicles`;
             
             // Show/hide no results message
+            noResults.style.display = searchResults.length === 0 ? 'block' : 'none';
             if (normalizedResults.length === 0) {
-                noResults.style.display = 'block';
                 return;
-            } else {
-                noResults.style.display = 'none';
             }
             
             // Create and append vehicle cards
@@ -788,6 +845,12 @@ document.addEventListener('DOMContentLoaded', function() {
     
     // Function that attempts to handle image URLs intelligently with retry and fallback mechanisms
     function getImageUrlsForVehicle(vehicle, callback) {
+        // Card-sized copies from search, when the server has them
+        if (vehicle.cardImages && vehicle.cardImages.length > 0) {
+            callback(vehicle.cardImages);
+            return;
+        }
+
         // Start with existing methods if available
         if (vehicle.images && vehicle.images.length > 0) {
             console.log('Using existing images array:', vehicle.images);
@@ -942,7 +1005,12 @@ document.addEventListener('DOMContentLoaded', function() {
         // Create the card content first with default image
         const imgContainer = document.createElement('div');
         imgContainer.className = 'vehicle-image';
-        
+        // Dominant colour of the first photo fills the box while it loads
+        const placeholder = vehicle.placeholders && vehicle.placeholders[0];
+        if (placeholder && placeholder.color) {
+            imgContainer.style.backgroundColor = placeholder.color;
+        }
+
         const img = document.createElement('img');
         img.src = mainImage; // Start with default, will update async if available
         img.alt = vehicle.fullName ? `${vehicle.fullName}'s ${vehicle.vehicleType}` : 'Vehicle Image';
@@ -0,0 +1,189 @@
+package com.example.demo.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import com.example.demo.util.ETagUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves gzip-compressed bodies for selected GET endpoints from a cache of
+ * already-compressed bytes.
+ *
+ * The handler still runs, but for search, feedback and the posts feed that is a cache hit
+ * or a cheap read; compression is the part we skip. Entries are keyed by URL plus the
+ * response version: the ETag when the controller sets one, otherwise a hash of the body.
+ * A new version is a new key, so an entry never serves stale bytes, and old versions age out.
+ */
+@Component
+public class CompressedResponseCacheFilter extends OncePerRequestFilter {
+
+    private record Key(String url, String version) {}
+
+    private final boolean enabled;
+    private final List<String> pathPatterns;
+    private final int minBytes;
+    private final Cache<Key, byte[]> gzipCache;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public CompressedResponseCacheFilter(
+            @Value("${app.response-cache.enabled:true}") boolean enabled,
+            @Value("${app.response-cache.paths:/api/vehicles/search,/api/get-feedback,/api/get-all-feedback,/api/posts}") String paths,
+            @Value("${app.response-cache.min-bytes:1024}") int minBytes,
+            @Value("${app.response-cache.max-megabytes:32}") long maxMegabytes) {
+        this.enabled = enabled;
+        this.pathPatterns = Arrays.stream(paths.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .toList();
+        this.minBytes = minBytes;
+        this.gzipCache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((Key key, byte[] body) -> body.length + key.url().length() + key.version().length())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) return true;
+        String path = request.getRequestURI();
+        for (String pattern : pathPatterns) {
+            if (pathMatcher.match(pattern, path)) return false;
+        }
+        return true;
+    }
+
+    // StreamingResponseBody finishes on an async dispatch; the body is only complete there
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            // Shared caches must not hand this identity body to clients that accept gzip
+            if (!isAsyncDispatch(request)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                writeResponse(request, wrapper);
+            }
+        }
+    }
+
+    private void writeResponse(HttpServletRequest request, ContentCachingResponseWrapper wrapper) throws IOException {
+        HttpServletResponse raw = (HttpServletResponse) wrapper.getResponse();
+        if (wrapper.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+            // Tell caches which representation was revalidated, as the 200 would have
+            String etag = wrapper.getHeader(HttpHeaders.ETAG);
+            if (ETagUtil.matchesGzipped(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                raw.setHeader(HttpHeaders.ETAG, ETagUtil.gzipped(etag));
+            }
+            raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        int length = wrapper.getContentSize();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || length < minBytes
+                || wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        String etag = wrapper.getHeader(HttpHeaders.ETAG);
+        String version = etag != null ? etag : Hashing.murmur3_128().hashBytes(body).toString();
+        String query = request.getQueryString();
+        Key key = new Key(query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query, version);
+
+        byte[] gzipped = gzipCache.getIfPresent(key);
+        if (gzipped == null) {
+            gzipped = gzip(body);
+            gzipCache.put(key, gzipped);
+        }
+
+        // Discard the buffered plain body and send the compressed one instead
+        wrapper.resetBuffer();
+        raw.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        if (etag != null) {
+            // Different bytes from the identity response, so a different strong validator
+            raw.setHeader(HttpHeaders.ETAG, ETagUtil.gzipped(etag));
+        }
+        raw.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        raw.setContentLength(gzipped.length);
+        raw.getOutputStream().write(gzipped);
+        raw.flushBuffer();
+    }
+
+    // Compressed once per version, so the slowest/best level is worth it
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gz.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * True unless the client did not list gzip (or *), or gave it q=0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        if (Double.parseDouble(param.substring(2)) <= 0) return false;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -23,6 +23,7 @@ import com.example.demo.model.User;
 import com.example.demo.repository.RegistrationRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.service.VehicleSearchIndex;
 
 /**
  * Specialized controller for vehicle deletion operations
@@ -45,6 +46,9 @@ public class DeletionController {
     @Autowired
     private RegistrationRepository registrationRepository;
     
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+    
     /**
      * Main endpoint for vehicle deletion
      * Uses direct SQL with proper error handling
@@ -120,6 +124,7 @@ public class DeletionController {
                 registrationId
             );
             System.out.println("DeletionController: Deleted " + regRows + " rows from registration");
+            vehicleSearchIndex.remove(registrationId);
             
             if (regRows == 0) {
                 System.err.println("DeletionController: No rows deleted from registration table");
@@ -225,6 +230,7 @@ public class DeletionController {
                 registrationId
             );
             System.out.println("DeletionController: Deleted " + regRows + " rows from registration");
+            vehicleSearchIndex.remove(registrationId);
             
             // Step 7: Re-enable foreign key checks
             System.out.println("DeletionController: Re-enabling foreign key checks");
@@ -333,6 +339,7 @@ public class DeletionController {
                     
                     // 2.4 Delete the registration
                     registrationRepository.delete(registration);
+                    vehicleSearchIndex.remove(registrationId);
                     System.out.println("Successfully deleted registration: " + registrationId);
                     
                 } catch (Exception e) {
@@ -345,6 +352,7 @@ public class DeletionController {
                     try {
                         int rowsDeleted = jdbcTemplate.update("DELETE FROM registration WHERE id = ?", registration.getId());
                         if (rowsDeleted > 0) {
+                            vehicleSearchIndex.remove(registration.getId());
                             System.out.println("Successfully deleted registration using SQL: " + registration.getId());
                         } else {
                             System.err.println("No rows deleted with SQL for registration: " + registration.getId());
@@ -461,6 +469,7 @@ public class DeletionController {
             
             // Delete the registration
             registrationRepository.delete(registration);
+            vehicleSearchIndex.remove(registrationId);
             System.out.println("ADMIN DELETE: Successfully deleted registration record");
             
             // Clean up storage buckets
@@ -527,6 +536,7 @@ public class DeletionController {
             
             // Delete the registration
             registrationRepository.delete(registration);
+            vehicleSearchIndex.remove(registrationId);
             System.out.println("ADMIN DELETE: Successfully deleted registration record");
             
             // Clean up storage buckets
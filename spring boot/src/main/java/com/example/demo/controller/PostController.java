@@ -1,25 +1,37 @@
 package com.example.demo.controller;
 
 import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.example.demo.dto.PostCreateRequest;
 import com.example.demo.dto.PostResponse;
+import com.example.demo.service.ImageProcessor;
+import com.example.demo.service.PostExpiryJob;
+import com.example.demo.service.PostExpiryWheel;
+import com.example.demo.service.PostFeedCache;
+import com.example.demo.service.PostFeedStream;
 import com.example.demo.service.PostService;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.util.ETagUtil;
+import com.example.demo.util.ImageUploadUtil;
 
 import jakarta.validation.Valid;
 
@@ -30,16 +42,30 @@ public class PostController {
 
     private final PostService postService;
     private final SupabaseService supabaseService;
+    private final PostExpiryJob postExpiryJob;
+    private final PostFeedStream postFeedStream;
+    private final PostExpiryWheel postExpiryWheel;
+    private final PostFeedCache postFeedCache;
 
-    public PostController(PostService postService, SupabaseService supabaseService) {
+    public PostController(PostService postService, SupabaseService supabaseService, PostExpiryJob postExpiryJob,
+                          PostFeedStream postFeedStream, PostExpiryWheel postExpiryWheel, PostFeedCache postFeedCache) {
         this.postService = postService;
         this.supabaseService = supabaseService;
+        this.postExpiryJob = postExpiryJob;
+        this.postFeedStream = postFeedStream;
+        this.postExpiryWheel = postExpiryWheel;
+        this.postFeedCache = postFeedCache;
     }
 
     @PostMapping
     public ResponseEntity<?> create(@Valid @RequestBody PostCreateRequest req) {
         try {
-            return ResponseEntity.ok(postService.create(req));
+            PostResponse created = postService.create(req);
+            // Committed by now, so subscribers never see a post that rolled back
+            postFeedStream.postCreated(created);
+            postExpiryWheel.schedule(created.getId(), created.getExpiresAt());
+            postFeedCache.invalidate();
+            return ResponseEntity.ok(created);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(ex.getMessage());
         } catch (Exception ex) {
@@ -47,13 +73,59 @@ public class PostController {
         }
     }
 
+    /**
+     * Without before/limit: every active post as a plain array (what posts.html reads).
+     * With either: one page, { posts: [...], nextCursor }, where nextCursor goes back as
+     * before= for the next page and is null on the last one.
+     */
     @GetMapping
-    public ResponseEntity<List<PostResponse>> list(
+    public ResponseEntity<?> list(
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "updatedAfter", required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime updatedAfter
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime updatedAfter,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
     ) {
-        return ResponseEntity.ok(postService.list(category, updatedAfter));
+        if (before == null && limit == null) {
+            if (updatedAfter == null) {
+                PostFeedCache.Feed feed = postFeedCache.feed(category);
+                if (feed != null) {
+                    // Client already has this snapshot of the feed
+                    if (ETagUtil.matches(ifNoneMatch, feed.etag())) {
+                        return ETagUtil.notModified(feed.etag());
+                    }
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(feed.etag())
+                            .cacheControl(CacheControl.noCache())
+                            .body(feed.json());
+                }
+            } else {
+                List<PostResponse> recent = postFeedCache.createdAfter(updatedAfter);
+                if (recent != null) return ResponseEntity.ok(recent);
+            }
+            List<PostResponse> posts = postService.list(category, updatedAfter);
+            return ResponseEntity.ok(posts);
+        }
+        try {
+            PostService.PostPage page = postService.page(category, before,
+                    limit != null ? limit : PostService.DEFAULT_PAGE_SIZE);
+            Map<String, Object> body = new HashMap<>();
+            body.put("posts", page.posts());
+            body.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Live feed: "created" / "expired" events, resumable with Last-Event-ID (or ?lastEventId= on first connect)
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventId) {
+        return postFeedStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
     }
 
     // Presence aliases under /api/posts to avoid proxy-path 404s
@@ -69,12 +141,22 @@ public class PostController {
         return java.util.Map.of("page", page, "count", presenceService.count(page));
     }
 
+    // Rows expired/purged and duration of the last expiry run, plus totals since startup and the wheel's counters
+    @GetMapping(path = "/expiry-stats")
+    public java.util.Map<String, Object> expiryStats() {
+        java.util.Map<String, Object> stats = postExpiryJob.stats();
+        stats.put("wheel", postExpiryWheel.stats());
+        return stats;
+    }
+
     // Upload a single post image, returns { url: "..." }
     @PostMapping(path = "/upload-image", consumes = { "multipart/form-data" })
     public ResponseEntity<?> uploadPostImage(@RequestPart("image") MultipartFile image) {
         try {
             String url = supabaseService.uploadPostImage(image);
             return ResponseEntity.ok(java.util.Map.of("url", url));
+        } catch (ImageProcessor.ImageRejectedException ex) {
+            return ImageUploadUtil.rejected(ex);
         } catch (Exception ex) {
             return ResponseEntity.status(500).body("Image upload failed");
         }
@@ -8,7 +8,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,7 +29,14 @@ import com.example.demo.model.User;
 import com.example.demo.repository.RegistrationImageFolderRepository;
 import com.example.demo.repository.RegistrationRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.projection.RegistrationMatchView;
+import com.example.demo.repository.projection.RegistrationSummaryView;
+import com.example.demo.service.ImageProcessor;
+import com.example.demo.service.PlateNumberRegistry;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.service.VehicleSearchIndex;
+import com.example.demo.util.ImageUploadUtil;
+import com.example.demo.util.VehicleUtil;
  
 
 @RestController
@@ -35,6 +44,9 @@ import com.example.demo.service.SupabaseService;
 @RequestMapping("/api/registration")
 public class RegistrationController {
 
+    // Unique index on registration.plate_normalized (V8)
+    private static final String PLATE_UNIQUE_INDEX = "idx_registration_plate_normalized";
+
     @Autowired
     private SupabaseService supabaseService;
     
@@ -46,6 +58,12 @@ public class RegistrationController {
     
     @Autowired
     private RegistrationImageFolderRepository registrationImageFolderRepository;
+    
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+    
+    @Autowired
+    private PlateNumberRegistry plateNumberRegistry;
 
     /**
      * Fetch a single registration by ID (used by frontend vehicle card/detail)
@@ -53,14 +71,15 @@ public class RegistrationController {
     @GetMapping("/{id}")
     public ResponseEntity<?> getRegistrationById(@PathVariable("id") Long id) {
         try {
-            Optional<Registration> opt = registrationRepository.findById(id);
+            // Projection query: this view never renders image URLs or documents
+            Optional<RegistrationSummaryView> opt = registrationRepository.findSummaryById(id);
             if (opt.isEmpty()) {
                 Map<String, Object> err = new HashMap<>();
                 err.put("success", false);
                 err.put("message", "Registration not found: " + id);
                 return ResponseEntity.status(404).body(err);
             }
-            Registration reg = opt.get();
+            RegistrationSummaryView reg = opt.get();
             Map<String, Object> data = new HashMap<>();
             data.put("id", reg.getId());
             data.put("userId", reg.getUserId());
@@ -127,6 +146,16 @@ public class RegistrationController {
                 vehicleType != null && vehicleType.toLowerCase().contains("manual")) {
                 registration.setVehiclePlateNumber("MANUAL-CART-" + System.currentTimeMillis());
             } else if (vehiclePlateNumber != null) {
+                String normalizedPlate = VehicleUtil.normalizePlate(vehiclePlateNumber);
+                if (normalizedPlate != null && normalizedPlate.length() > VehicleUtil.MAX_PLATE_LENGTH) {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("success", false);
+                    errorResponse.put("message", "Vehicle plate number is too long.");
+                    return ResponseEntity.status(400).body(errorResponse);
+                }
+                if (plateNumberRegistry.exists(vehiclePlateNumber)) {
+                    return duplicatePlate();
+                }
             registration.setVehiclePlateNumber(vehiclePlateNumber);
             } else {
                 // If not a manual cart and no plate number provided, return an error
@@ -147,11 +176,28 @@ public class RegistrationController {
             }
 
             // Save to local database first to get the ID
-            Registration savedRegistration = registrationRepository.save(registration);
+            Registration savedRegistration;
+            try {
+                savedRegistration = registrationRepository.save(registration);
+            } catch (DataIntegrityViolationException e) {
+                // Lost a race with another registration of the same plate; any other violation is a real error
+                if (violates(e, PLATE_UNIQUE_INDEX)) {
+                    return duplicatePlate();
+                }
+                throw e;
+            }
+            plateNumberRegistry.add(savedRegistration.getVehiclePlateNumber());
             
             // Now upload images to Supabase storage in a folder named after registration ID
             // The uploadImagesToFolder method now returns a Map with folderPath and imageUrls
-            Map<String, Object> uploadResult = supabaseService.uploadImagesToFolder(Arrays.asList(vehicleImages), savedRegistration.getId());
+            Map<String, Object> uploadResult;
+            try {
+                uploadResult = supabaseService.uploadImagesToFolder(Arrays.asList(vehicleImages), savedRegistration.getId());
+            } catch (ImageProcessor.ImageRejectedException e) {
+                // No photo was kept; drop the row too so submitting again is not a duplicate plate
+                registrationRepository.delete(savedRegistration);
+                return ImageUploadUtil.rejected(e);
+            }
             
             // Extract folder path and image URLs from the result
             String folderPath = (String) uploadResult.get("folderPath");
@@ -169,6 +215,7 @@ public class RegistrationController {
                     System.out.println(" - " + url);
                 }
             }
+            vehicleSearchIndex.upsert(savedRegistration);
             
             // Additionally save to Supabase if needed
             try {
@@ -195,6 +242,27 @@ public class RegistrationController {
         }
     }
     
+    /**
+     * Whether the violation came from the named constraint or index. Postgres names it in the
+     * message ("violates unique constraint \"...\""), which Hibernate extracts.
+     */
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+                return constraint.equalsIgnoreCase(cve.getConstraintName());
+            }
+        }
+        Throwable root = e.getMostSpecificCause();
+        return root.getMessage() != null && root.getMessage().contains("\"" + constraint + "\"");
+    }
+    
+    private static ResponseEntity<?> duplicatePlate() {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "A vehicle with this plate number is already registered.");
+        return ResponseEntity.status(409).body(errorResponse);
+    }
+    
     @GetMapping
     public ResponseEntity<List<Registration>> getAllRegistrations() {
         return ResponseEntity.ok(registrationRepository.findAll());
@@ -248,6 +316,7 @@ public class RegistrationController {
             
             // Save the updated registration
             registrationRepository.save(registration);
+            vehicleSearchIndex.upsert(registration);
             
             // Update in Supabase if needed
             try {
@@ -359,6 +428,7 @@ public class RegistrationController {
             try {
                 System.out.println("DELETE DB: Deleting registration record " + id);
                 registrationRepository.deleteById(id);
+                vehicleSearchIndex.remove(id);
                 System.out.println("DELETE DB: Successfully deleted registration record");
                 
                 // Extra verification - check if the registration is actually gone
@@ -436,6 +506,7 @@ public class RegistrationController {
                     // The setter for vehicleImageUrls will update vehicleImageUrlsJson
                     registration.setVehicleImageUrls(urls);
                     registrationRepository.save(registration);
+                    vehicleSearchIndex.upsert(registration);
                     migratedCount++;
                     
                     System.out.println("Migrated registration ID " + registration.getId() + 
@@ -711,6 +782,7 @@ public class RegistrationController {
             
             registration.setMembership(membership);
             registrationRepository.save(registration);
+            vehicleSearchIndex.upsert(registration);
             
             // Return success response
             Map<String, Object> response = new HashMap<>();
@@ -760,6 +832,67 @@ public class RegistrationController {
         }
     }
 
+    /**
+     * Unified admin search over name, plate number and phone, ranked by trigram similarity.
+     * Tolerates misspellings and Hindi-English transliteration variants of names.
+     * 
+     * @param q The search term
+     * @param page Zero-based page number
+     * @param size Page size (max 100)
+     * @return One page of matches, best first
+     */
+    @GetMapping("/search/ranked")
+    public ResponseEntity<?> searchRegistrationsRanked(
+            @RequestParam("q") String q,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        String term = q != null ? q.trim() : "";
+        if (term.isEmpty()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Search term is required");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        int pageSize = Math.max(1, Math.min(size, 100));
+        int pageNumber = Math.max(0, page);
+        
+        // Substring matching only kicks in with 3+ characters, below that trigrams can't use the index
+        String pattern = term.length() < 3 ? "" : "%" + escapeLike(term) + "%";
+        
+        // Phone matching likewise needs 3+ digits
+        String digits = term.replaceAll("\\D", "");
+        if (digits.length() < 3) {
+            digits = "";
+        }
+        
+        try {
+            // Fetch one extra row to know whether there is a next page
+            List<RegistrationMatchView> rows = registrationRepository.searchRanked(
+                term, pattern, digits, pageSize + 1, pageNumber * pageSize);
+            boolean hasMore = rows.size() > pageSize;
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("results", hasMore ? rows.subList(0, pageSize) : rows);
+            response.put("page", pageNumber);
+            response.put("size", pageSize);
+            response.put("hasMore", hasMore);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Error searching registrations: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    // So % and _ in a search term match themselves instead of acting as wildcards
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Delete driving license document for a registration
      * 
@@ -849,6 +982,7 @@ public class RegistrationController {
                         r.setMembership(user.getMembership() != null ? user.getMembership() : "Standard");
                     }
                     registrationRepository.saveAll(regs);
+                    vehicleSearchIndex.upsertAll(regs);
                     updatedCount = regs.size();
                 }
             } else {
@@ -864,6 +998,7 @@ public class RegistrationController {
                     }
                 }
                 registrationRepository.saveAll(allRegs);
+                vehicleSearchIndex.upsertAll(allRegs);
             }
 
             Map<String, Object> response = new HashMap<>();
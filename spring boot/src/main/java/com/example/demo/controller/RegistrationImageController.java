@@ -8,12 +8,15 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -23,7 +26,11 @@ import com.example.demo.model.Registration;
 import com.example.demo.model.RegistrationImageFolder;
 import com.example.demo.repository.RegistrationImageFolderRepository;
 import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.service.ImageProcessor;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.service.VehicleSearchIndex;
+import com.example.demo.util.ETagUtil;
+import com.example.demo.util.ImageUploadUtil;
 
 @RestController
 @CrossOrigin(origins = "*")
@@ -39,6 +46,9 @@ public class RegistrationImageController {
     @Autowired
     private RegistrationImageFolderRepository registrationImageFolderRepository;
     
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+    
     /**
      * Upload images for a specific registration ID using the new folder structure
      */
@@ -70,6 +80,7 @@ public class RegistrationImageController {
             if (imageUrls != null && !imageUrls.isEmpty()) {
                 registrationEntity.setVehicleImageUrls(imageUrls);
                 registrationRepository.save(registrationEntity);
+                vehicleSearchIndex.upsert(registrationEntity);
                 
                 // Log the URLs being saved
                 System.out.println("Saved image URLs to registration via API: " + registrationId);
@@ -86,6 +97,8 @@ public class RegistrationImageController {
             response.put("imageUrls", imageUrls);
             
             return ResponseEntity.ok(response);
+        } catch (ImageProcessor.ImageRejectedException e) {
+            return ImageUploadUtil.rejected(e);
         } catch (IOException e) {
             e.printStackTrace();
             Map<String, Object> errorResponse = new HashMap<>();
@@ -100,7 +113,18 @@ public class RegistrationImageController {
      * Get all images for a specific registration ID
      */
     @GetMapping("/{registrationId}")
-    public ResponseEntity<?> getRegistrationImages(@PathVariable Long registrationId) {
+    public ResponseEntity<?> getRegistrationImages(
+            @PathVariable Long registrationId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Only the direct-URL response is a pure function of the registration row,
+        // so only that one is answered with 304 from the index version
+        VehicleSearchIndex.Listing indexed = vehicleSearchIndex.get(registrationId);
+        Long indexedVersion = vehicleSearchIndex.version(registrationId);
+        if (indexed != null && indexedVersion != null && !indexed.imageUrls().isEmpty()
+                && ETagUtil.matches(ifNoneMatch, ETagUtil.strong("i", indexedVersion))) {
+            return ETagUtil.notModified(ETagUtil.strong("i", indexedVersion));
+        }
+        
         try {
             // Check if registration exists
             Optional<Registration> registration = registrationRepository.findById(registrationId);
@@ -144,7 +168,10 @@ public class RegistrationImageController {
                 response.put("folderPath", registrationId.toString());
                 response.put("imageUrls", imageUrls);
                 
+                String etag = ETagUtil.strong("i", vehicleSearchIndex.versionOf(reg));
                 return ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
                         .header("Access-Control-Allow-Origin", "*")
                         .header("Access-Control-Allow-Methods", "GET, OPTIONS")
                         .header("Access-Control-Allow-Headers", "Content-Type")
@@ -190,6 +217,7 @@ public class RegistrationImageController {
                 if (imageUrls != null && !imageUrls.isEmpty()) {
                     reg.setVehicleImageUrls(imageUrls);
                     registrationRepository.save(reg);
+                    vehicleSearchIndex.upsert(reg);
                     System.out.println("Updated registration " + registrationId + " with " + imageUrls.size() + " image URLs");
                     
                     // Debug log first few updated URLs
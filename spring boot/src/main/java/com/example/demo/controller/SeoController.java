@@ -103,6 +103,7 @@ public class SeoController {
         model.addAttribute("heading", meta.heading());
         model.addAttribute("canonicalUrl", meta.canonicalUrl());
         model.addAttribute("jsonLd", meta.jsonLd());
+        model.addAttribute("listingCount", meta.listingCount());
         model.addAttribute("frontendUrl", buildFrontendUrl(path, request));
         model.addAttribute("frontendBase", frontendBaseUrl);
         return viewName;
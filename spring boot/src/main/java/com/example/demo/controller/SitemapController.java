@@ -1,15 +1,20 @@
 package com.example.demo.controller;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.example.demo.service.ListingCountService;
 import com.example.demo.util.CityUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +22,15 @@ import jakarta.servlet.http.HttpServletRequest;
 @Controller
 public class SitemapController {
 
+    // Vehicle-type pages listed per city, busiest types first
+    private static final int TYPES_PER_CITY = 3;
+
+    private final ListingCountService listingCountService;
+
+    public SitemapController(ListingCountService listingCountService) {
+        this.listingCountService = listingCountService;
+    }
+
     @GetMapping(value = "/sitemap.xml", produces = MediaType.APPLICATION_XML_VALUE)
     @ResponseBody
     public String sitemap(HttpServletRequest request) {
@@ -29,14 +43,34 @@ public class SitemapController {
         urls.add(url(base + "/vehicles", lastmod));
         urls.add(url(base + "/register", lastmod));
 
-        // City pages
-        for (String city : CityUtil.getAllCities()) {
-            String encodedCity = city.replace(' ', '-');
-            urls.add(url(base + "/city/" + encodedCity, lastmod));
-            urls.add(url(base + "/vehicles/" + encodedCity, lastmod));
-            // a few popular types
-            urls.add(url(base + "/vehicles/" + encodedCity + "/truck", lastmod));
-            urls.add(url(base + "/register/" + encodedCity + "/tata-ace", lastmod));
+        if (!listingCountService.isLoaded()) {
+            // Counts not available yet: advertise every known city as before
+            for (String city : CityUtil.getAllCities()) {
+                String encodedCity = city.replace(' ', '-');
+                urls.add(url(base + "/city/" + encodedCity, lastmod));
+                urls.add(url(base + "/vehicles/" + encodedCity, lastmod));
+                // a few popular types
+                urls.add(url(base + "/vehicles/" + encodedCity + "/truck", lastmod));
+                urls.add(url(base + "/register/" + encodedCity + "/tata-ace", lastmod));
+            }
+        } else {
+            // Search pages only where there is something to find, ranked by how much
+            for (ListingCountService.CityCounts counts : listingCountService.cities()) {
+                String encodedCity = counts.city().replace(' ', '-');
+                String priority = priority(counts.total());
+                urls.add(url(base + "/city/" + encodedCity, lastmod, priority));
+                urls.add(url(base + "/vehicles/" + encodedCity, lastmod, priority));
+                int added = 0;
+                for (Map.Entry<String, Long> type : counts.byType().entrySet()) {
+                    if (added++ == TYPES_PER_CITY) break;
+                    urls.add(url(base + "/vehicles/" + encodedCity + "/" + slug(type.getKey()), lastmod, priority(type.getValue())));
+                }
+            }
+            // Registration pages are useful everywhere, including cities with no listings yet
+            for (String city : CityUtil.getAllCities()) {
+                String encodedCity = city.replace(' ', '-');
+                urls.add(url(base + "/register/" + encodedCity + "/tata-ace", lastmod, "0.3"));
+            }
         }
 
         return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
@@ -45,6 +79,20 @@ public class SitemapController {
                "</urlset>";
     }
 
+    private static String priority(long listings) {
+        if (listings >= 50) return "0.9";
+        if (listings >= 10) return "0.7";
+        return "0.5";
+    }
+
+    private static String slug(String vehicleType) {
+        return URLEncoder.encode(vehicleType.toLowerCase(Locale.ROOT).replace(' ', '-'), StandardCharsets.UTF_8);
+    }
+
+    private static String url(String loc, String lastmod, String priority) {
+        return "<url><loc>" + escape(loc) + "</loc><lastmod>" + lastmod + "</lastmod><priority>" + priority + "</priority></url>";
+    }
+
     private static String url(String loc, String lastmod) {
         return "<url><loc>" + escape(loc) + "</loc><lastmod>" + lastmod + "</lastmod></url>";
     }
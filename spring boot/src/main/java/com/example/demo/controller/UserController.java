@@ -21,11 +21,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.dto.VehicleDetail;
+import com.example.demo.dto.VehicleMapper;
 import com.example.demo.model.Registration;
 import com.example.demo.model.User;
 import com.example.demo.repository.RegistrationRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.projection.RegistrationLocationView;
+import com.example.demo.service.ImageProcessor;
+import com.example.demo.service.ImageVariantRegistry;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.service.VehicleSearchIndex;
+import com.example.demo.util.ImageUploadUtil;
 
 @RestController
 @CrossOrigin(origins = "*")
@@ -41,9 +48,15 @@ public class UserController {
     @Autowired
     private RegistrationRepository registrationRepository;
     
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+    
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ImageVariantRegistry imageVariantRegistry;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody User user) {
         System.out.println("Received Data: " + user);
@@ -155,54 +168,9 @@ public class UserController {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         
-        List<Map<String, Object>> vehicleList = new ArrayList<>();
-        
+        List<VehicleDetail> vehicleList = new ArrayList<>(registrations.size());
         for (Registration reg : registrations) {
-            Map<String, Object> vehicle = new HashMap<>();
-            vehicle.put("id", reg.getId().toString());
-            vehicle.put("number", reg.getVehiclePlateNumber());
-            vehicle.put("type", reg.getVehicleType());
-            vehicle.put("status", "active"); // Default to active
-            vehicle.put("owner", reg.getFullName());
-            vehicle.put("userId", reg.getUserId()); // Add the user ID
-            
-            // Use actual registration date from entity
-            String registrationDate = reg.getRegistrationDate() != null 
-                ? reg.getRegistrationDate().toString() 
-                : java.time.LocalDate.now().toString();
-            vehicle.put("registrationDate", registrationDate);
-            
-            vehicle.put("contact", reg.getContactNumber());
-            vehicle.put("whatsapp", reg.getWhatsappNumber());
-            vehicle.put("alternateContact", reg.getAlternateContactNumber());
-            vehicle.put("location", reg.getCity() + ", " + reg.getState());
-            vehicle.put("pincode", reg.getPincode());
-            
-            // Handle vehicle images
-            Map<String, String> photos = new HashMap<>();
-            List<String> imageUrls = reg.getVehicleImageUrls();
-            
-            // Set default image if no images are available
-            String defaultImage = "attached_assets/images/default-vehicle.png";
-            
-            // Map image URLs to the expected format
-            photos.put("front", imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage);
-            photos.put("side", imageUrls.size() > 1 ? imageUrls.get(1) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
-            photos.put("back", imageUrls.size() > 2 ? imageUrls.get(2) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
-            photos.put("loading", imageUrls.size() > 3 ? imageUrls.get(3) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
-            
-            vehicle.put("photos", photos);
-            
-            // Add service highlights
-            Map<String, String> highlights = new HashMap<>();
-            highlights.put("highlight1", reg.getHighlight1());
-            highlights.put("highlight2", reg.getHighlight2());
-            highlights.put("highlight3", reg.getHighlight3());
-            highlights.put("highlight4", reg.getHighlight4());
-            highlights.put("highlight5", reg.getHighlight5());
-            vehicle.put("highlights", highlights);
-            
-            vehicleList.add(vehicle);
+            vehicleList.add(VehicleMapper.detail(reg, imageVariantRegistry));
         }
         
         response.put("vehicles", vehicleList);
@@ -217,15 +185,14 @@ public class UserController {
     public ResponseEntity<?> getUserLocations() {
         System.out.println("Fetching user locations for feedback carousel");
         
-        // Find all registrations to get user locations
-        List<Registration> registrations = registrationRepository.findAll();
+        // Only the location columns of registrations with a valid userId
+        List<RegistrationLocationView> registrations = registrationRepository.findLocationsByUserIdIsNotNull();
         
         Map<String, String> userLocations = new HashMap<>();
         
         // For each registration, add the user's location to the map
         // If a user has multiple registrations, the latest one's location will be used
-        for (Registration reg : registrations) {
-            // Only include registrations with a valid userId
+        for (RegistrationLocationView reg : registrations) {
             if (reg.getUserId() != null) {
                 String location = reg.getCity();
                 if (reg.getState() != null && !reg.getState().isEmpty()) {
@@ -333,6 +300,8 @@ public class UserController {
             response.put("message", "Profile photo uploaded successfully");
             
             return ResponseEntity.ok(response);
+        } catch (ImageProcessor.ImageRejectedException e) {
+            return ImageUploadUtil.rejected(e);
         } catch (Exception e) {
             e.printStackTrace(); // Print full stack trace for debugging
             Map<String, Object> errorResponse = new HashMap<>();
@@ -517,6 +486,7 @@ public class UserController {
                     
                     // Delete the registration
                     registrationRepository.delete(registration);
+                    vehicleSearchIndex.remove(registration.getId());
                     System.out.println("Successfully deleted registration: " + registration.getId());
                     
                 } catch (Exception e) {
@@ -529,6 +499,7 @@ public class UserController {
                     try {
                         int rowsDeleted = jdbcTemplate.update("DELETE FROM registration WHERE id = ?", registration.getId());
                         if (rowsDeleted > 0) {
+                            vehicleSearchIndex.remove(registration.getId());
                             System.out.println("Successfully deleted registration using SQL: " + registration.getId());
                         } else {
                             System.err.println("No rows deleted with SQL for registration: " + registration.getId());
@@ -668,6 +639,7 @@ public class UserController {
                         reg.setMembership("Premium");
                     }
                     registrationRepository.saveAll(userRegistrations);
+                    vehicleSearchIndex.upsertAll(userRegistrations);
                 }
             } catch (Exception syncEx) {
                 // Log but do not fail the premium upgrade response
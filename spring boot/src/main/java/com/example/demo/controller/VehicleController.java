@@ -1,13 +1,21 @@
 package com.example.demo.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,20 +25,38 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dto.VehicleDetail;
+import com.example.demo.dto.VehicleMapper;
 import com.example.demo.model.Registration;
 import com.example.demo.repository.RegistrationImageFolderRepository;
 import com.example.demo.repository.RegistrationRepository;
+import com.example.demo.repository.projection.VehicleListingView;
+import com.example.demo.service.ImageVariantRegistry;
+import com.example.demo.service.PlateNumberRegistry;
 import com.example.demo.service.SupabaseService;
+import com.example.demo.service.VehicleSearchCache;
+import com.example.demo.service.VehicleSearchIndex;
+import com.example.demo.util.ETagUtil;
+import com.example.demo.util.VehicleTypeNormalizer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @CrossOrigin(origins = "*")
 @RequestMapping("/api")
 public class VehicleController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final double DEFAULT_RADIUS_KM = 15.0;
+    private static final int MAX_BATCH_SIZE = 300;
+    
     @Autowired
     private RegistrationRepository registrationRepository;
     
@@ -46,10 +72,25 @@ public class VehicleController {
     @Autowired
     private DeletionController deletionController;
     
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+    
+    @Autowired
+    private VehicleSearchCache vehicleSearchCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlateNumberRegistry plateNumberRegistry;
+
+    @Autowired
+    private ImageVariantRegistry imageVariantRegistry;
+    
     @GetMapping("/vehicles/check")
     public ResponseEntity<?> checkVehicleExists(@RequestParam("vehicleNumber") String vehicleNumber) {
-        // Always return false to allow duplicate vehicle plate numbers
-        boolean exists = false;
+        // Bloom filter first; only possible matches go to the database
+        boolean exists = plateNumberRegistry.exists(vehicleNumber);
         
         Map<String, Object> response = new HashMap<>();
         response.put("exists", exists);
@@ -62,76 +103,187 @@ public class VehicleController {
             @RequestParam(value = "type", required = false) String vehicleType,
             @RequestParam(value = "state", required = false) String state,
             @RequestParam(value = "city", required = false) String city,
-            @RequestParam(value = "pincode", required = false) String pincode) {
+            @RequestParam(value = "pincode", required = false) String pincode,
+            @RequestParam(value = "near", required = false) String near,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
             
         System.out.println("Searching vehicles with: type=" + vehicleType + ", state=" + state + 
-                           ", city=" + city + ", pincode=" + pincode);
+                           ", city=" + city + ", pincode=" + pincode + ", near=" + near + 
+                           ", radiusKm=" + radiusKm + ", cursor=" + cursor + ", limit=" + limit);
         
-        // Get all registrations
-        List<Registration> allRegistrations = registrationRepository.findAll();
+        Long afterKey;
+        try {
+            afterKey = cursor == null || cursor.isEmpty() ? null : VehicleSearchIndex.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+        int pageSize = pageSize(limit);
         
-        // Apply filters based on search parameters - Only filter by vehicle type and pincode
-        List<Registration> filteredRegistrations = allRegistrations.stream()
-            .filter(reg -> vehicleType == null || vehicleType.isEmpty() || reg.getVehicleType().equals(vehicleType))
-            // Ignoring state and city filters as requested
-            .filter(reg -> pincode == null || pincode.isEmpty() || reg.getPincode().startsWith(pincode))
-            .collect(Collectors.toList());
-            
-        System.out.println("Found " + filteredRegistrations.size() + " matching vehicles");
+        // Free-text types ("chota hathi", "tata 407 truck") map onto the stored names;
+        // types that already exist in the index are used as-is
+        if (vehicleType != null && !vehicleType.isBlank() && vehicleSearchIndex.isReady()
+                && !vehicleSearchIndex.hasVehicleType(vehicleType)) {
+            vehicleType = VehicleTypeNormalizer.canonicalOrSelf(vehicleType);
+        }
         
-        // Create response
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
+        // "Vehicles near me": radius search around a pincode, nearest first
+        if (near != null && !near.trim().isEmpty()) {
+            VehicleSearchIndex.Page nearPage = vehicleSearchIndex.isReady()
+                ? vehicleSearchIndex.searchNear(vehicleType, near.trim(),
+                      radiusKm != null ? radiusKm : DEFAULT_RADIUS_KM, afterKey, pageSize)
+                : null;
+            if (nearPage != null) {
+                String etag = ETagUtil.strong("s", nearPage.version());
+                if (ETagUtil.matches(ifNoneMatch, etag)) {
+                    return ETagUtil.notModified(etag);
+                }
+                System.out.println("Returning " + nearPage.listings().size() + " vehicles near " + near);
+                return streamVehiclePage(nearPage, etag);
+            }
+            // Unknown pincode location (or index still loading): treat it as a pincode search
+            pincode = near.trim();
+        }
         
-        List<Map<String, Object>> vehicleList = new ArrayList<>();
-        
-        for (Registration reg : filteredRegistrations) {
-            Map<String, Object> vehicle = new HashMap<>();
-            vehicle.put("id", reg.getId());
-            vehicle.put("userId", reg.getUserId());
-            vehicle.put("name", reg.getFullName() + "'s " + reg.getVehicleType());
-            vehicle.put("type", reg.getVehicleType());
-            vehicle.put("images", reg.getVehicleImageUrls());
-            vehicle.put("locationState", reg.getState());
-            vehicle.put("locationCity", reg.getCity());
-            vehicle.put("locationPincode", reg.getPincode());
-            vehicle.put("ownerName", reg.getFullName());
-            vehicle.put("ownerPhone", reg.getContactNumber());
-            // Include membership for premium/standard styling on frontend
-            vehicle.put("membership", reg.getMembership());
-            
-            // Use the actual registration date if available, otherwise format today's date
-            String registrationDate = reg.getRegistrationDate() != null 
-                ? reg.getRegistrationDate().toString() 
-                : java.time.LocalDate.now().toString();
-            vehicle.put("registrationDate", registrationDate);
-            
-            vehicle.put("capacity", "Standard capacity"); // Add these fields to Registration entity later
-            vehicle.put("dimensions", "Standard dimensions");
-            vehicle.put("registrationNumber", reg.getVehiclePlateNumber());
-            vehicle.put("availability", "Available Now");
-            
-            // Remove description handling code that used VehicleDescription
-            // Add empty description instead
-            vehicle.put("description", "");
-            
-            // Add service highlights
-            Map<String, String> highlights = new HashMap<>();
-            highlights.put("highlight1", reg.getHighlight1());
-            highlights.put("highlight2", reg.getHighlight2());
-            highlights.put("highlight3", reg.getHighlight3());
-            highlights.put("highlight4", reg.getHighlight4());
-            highlights.put("highlight5", reg.getHighlight5());
-            vehicle.put("highlights", highlights);
-            
-            vehicleList.add(vehicle);
+        // Serve from the in-memory index; fall back to a table scan until it has loaded
+        if (vehicleSearchIndex.isReady()) {
+            VehicleSearchCache.Key key = VehicleSearchCache.Key.of(vehicleType, pincode, cursor, pageSize);
+            VehicleSearchCache.Entry entry = vehicleSearchCache.getIfPresent(key);
+            if (entry == null) {
+                long generation = vehicleSearchCache.generation();
+                VehicleSearchIndex.Page page =
+                    vehicleSearchIndex.search(key.vehicleType(), key.pincodePrefix(), afterKey, pageSize);
+                String etag = ETagUtil.strong("s", page.version());
+                // Client already has this page: skip serializing it at all
+                if (ETagUtil.matches(ifNoneMatch, etag)) {
+                    return ETagUtil.notModified(etag);
+                }
+                entry = new VehicleSearchCache.Entry(renderVehiclePage(page), etag);
+                vehicleSearchCache.put(key, entry, generation);
+            } else if (ETagUtil.matches(ifNoneMatch, entry.etag())) {
+                return ETagUtil.notModified(entry.etag());
+            }
+            return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(entry.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(entry.body());
         }
         
-        response.put("vehicles", vehicleList);
+        VehicleSearchIndex.Page page =
+            VehicleSearchIndex.paginate(searchVehiclesFromDatabase(vehicleType, pincode), afterKey, pageSize);
+            
+        System.out.println("Returning " + page.listings().size() + " matching vehicles");
+        
+        return streamVehiclePage(page, ETagUtil.strong("s", page.version()));
+    }
+    
+    /**
+     * Listing counts per vehicle type, city and membership tier for a pincode prefix,
+     * from counters the search index keeps up to date on every write
+     */
+    @GetMapping("/vehicles/facets")
+    public ResponseEntity<?> getVehicleFacets(@RequestParam(value = "pincode", required = false) String pincode) {
+        String prefix = pincode != null ? pincode.trim() : "";
+        VehicleSearchIndex.Facets facets = vehicleSearchIndex.isReady()
+            ? vehicleSearchIndex.facets(prefix)
+            : VehicleSearchIndex.facetsOf(registrationRepository.findListingsByPincodeStartingWithOrderByIdAsc(prefix).stream()
+                .map(VehicleSearchIndex.Listing::from)
+                .collect(Collectors.toList()));
         
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("pincode", prefix);
+        response.put("total", facets.total());
+        response.put("vehicleTypes", facets.vehicleTypes());
+        response.put("cities", facets.cities());
+        response.put("memberships", facets.memberships());
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/vehicles/search/cache-stats")
+    public ResponseEntity<?> getSearchCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("cache", vehicleSearchCache.stats());
+        response.put("indexedListings", vehicleSearchIndex.size());
+        return ResponseEntity.ok(response);
+    }
+    
+    // Database-side search, only used while the search index is still loading.
+    // Ignoring state and city filters as requested
+    private List<VehicleSearchIndex.Listing> searchVehiclesFromDatabase(String vehicleType, String pincode) {
+        String prefix = pincode != null ? pincode.trim() : "";
+        List<VehicleListingView> rows = vehicleType == null || vehicleType.isEmpty()
+            ? registrationRepository.findListingsByPincodeStartingWithOrderByIdAsc(prefix)
+            : registrationRepository.findListingsByVehicleTypeAndPincodeStartingWithOrderByIdAsc(vehicleType, prefix);
+        return rows.stream()
+            .map(VehicleSearchIndex.Listing::from)
+            .collect(Collectors.toList());
+    }
+    
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+    
+    private static ResponseEntity<?> invalidCursor() {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Invalid cursor");
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+    
+    /**
+     * Writes a page of vehicles straight to the response with a JsonGenerator,
+     * so no per-vehicle Map is built regardless of how many vehicles match.
+     */
+    private ResponseEntity<StreamingResponseBody> streamVehiclePage(VehicleSearchIndex.Page page, String etag) {
+        StreamingResponseBody body = out -> writeVehiclePage(out, page);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .body(body);
+    }
+    
+    // Same JSON as streamVehiclePage, buffered so the search cache can keep the bytes
+    private byte[] renderVehiclePage(VehicleSearchIndex.Page page) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + page.listings().size() * 512);
+        try {
+            writeVehiclePage(out, page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    private void writeVehiclePage(OutputStream out, VehicleSearchIndex.Page page) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeArrayFieldStart("vehicles");
+            List<VehicleSearchIndex.Listing> listings = page.listings();
+            for (int i = 0; i < listings.size(); i++) {
+                VehicleSearchIndex.Listing listing = listings.get(i);
+                gen.writeObject(VehicleMapper.summary(listing, imageVariantRegistry,
+                    page.distancesKm() != null ? page.distancesKm()[i] : null));
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("count", page.listings().size());
+            if (page.nextKey() != null) {
+                gen.writeStringField("nextCursor", VehicleSearchIndex.encodeCursor(page.nextKey()));
+            } else {
+                gen.writeNullField("nextCursor");
+            }
+            gen.writeEndObject();
+        }
+    }
+    
     @PostMapping("/vehicles/{vehicleId}/highlights")
     public ResponseEntity<?> updateVehicleHighlights(
             @PathVariable("vehicleId") Long vehicleId,
@@ -161,6 +313,7 @@ public class VehicleController {
         
         // Save the updated registration
         Registration updatedRegistration = registrationRepository.save(registration);
+        vehicleSearchIndex.upsert(updatedRegistration);
         
         // Create response
         Map<String, Object> response = new HashMap<>();
@@ -285,6 +438,7 @@ public class VehicleController {
         try {
             Registration updatedRegistration = registrationRepository.save(registration);
             System.out.println("Successfully saved registration in database. ID: " + updatedRegistration.getId());
+            vehicleSearchIndex.upsert(updatedRegistration);
             
             // Create response
             Map<String, Object> response = new HashMap<>();
@@ -332,9 +486,17 @@ public class VehicleController {
     }
     
     @GetMapping("/vehicles/{vehicleId}")
-    public ResponseEntity<?> getVehicleById(@PathVariable("vehicleId") Long vehicleId) {
+    public ResponseEntity<?> getVehicleById(
+            @PathVariable("vehicleId") Long vehicleId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         System.out.println("Getting vehicle with ID: " + vehicleId);
         
+        // Answer revalidation from the index version without touching the database
+        Long indexedVersion = vehicleSearchIndex.version(vehicleId);
+        if (indexedVersion != null && ETagUtil.matches(ifNoneMatch, ETagUtil.strong("v", indexedVersion))) {
+            return ETagUtil.notModified(ETagUtil.strong("v", indexedVersion));
+        }
+        
         // Find the vehicle registration
         Optional<Registration> optionalRegistration = registrationRepository.findById(vehicleId);
         
@@ -351,117 +513,134 @@ public class VehicleController {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         
-        Map<String, Object> vehicleData = new HashMap<>();
-        vehicleData.put("id", registration.getId());
-        vehicleData.put("userId", registration.getUserId());
-        vehicleData.put("owner", registration.getFullName());
-        vehicleData.put("type", registration.getVehicleType());
-        vehicleData.put("number", registration.getVehiclePlateNumber());
-        vehicleData.put("contact", registration.getContactNumber());
-        vehicleData.put("whatsapp", registration.getWhatsappNumber());
-        vehicleData.put("alternateContact", registration.getAlternateContactNumber());
-        vehicleData.put("location", registration.getCity() + ", " + registration.getState());
-        vehicleData.put("pincode", registration.getPincode());
-        // Include membership for premium/standard styling on frontend
-        vehicleData.put("membership", registration.getMembership());
-        
-        // Include the registration date
-        String formattedRegistrationDate = registration.getRegistrationDate() != null 
-            ? registration.getRegistrationDate().toString() 
-            : "";
-        vehicleData.put("registrationDate", formattedRegistrationDate);
-        
-        // Add vehicle images
-        vehicleData.put("photos", getVehiclePhotos(registration));
-        
-        // Add highlights
-        Map<String, String> highlights = new HashMap<>();
-        highlights.put("highlight1", registration.getHighlight1());
-        highlights.put("highlight2", registration.getHighlight2());
-        highlights.put("highlight3", registration.getHighlight3());
-        highlights.put("highlight4", registration.getHighlight4());
-        highlights.put("highlight5", registration.getHighlight5());
-        vehicleData.put("highlights", highlights);
-        
-        response.put("vehicle", vehicleData);
+        response.put("vehicle", VehicleMapper.detail(registration, imageVariantRegistry));
         
-        return ResponseEntity.ok(response);
+        // Same version the 304 check above reads from the index
+        String etag = ETagUtil.strong("v", vehicleSearchIndex.versionOf(registration));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(response);
     }
     
-    // Helper method to format vehicle photos
-    private Map<String, String> getVehiclePhotos(Registration registration) {
-        Map<String, String> photos = new HashMap<>();
-        List<String> imageUrls = registration.getVehicleImageUrls();
+    /**
+     * Fetch several vehicles in one round trip, e.g. GET /api/vehicles/batch?ids=12,7,31.
+     * Vehicles come back in the order the ids were asked for; unknown ids are listed in "missing".
+     */
+    @GetMapping("/vehicles/batch")
+    public ResponseEntity<?> getVehiclesBatch(@RequestParam("ids") String ids) {
+        List<Long> vehicleIds = new ArrayList<>();
+        for (String part : ids.split(",")) {
+            String id = part.trim();
+            if (id.isEmpty()) continue;
+            try {
+                vehicleIds.add(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                return badBatchRequest("Invalid vehicle ID: " + id);
+            }
+        }
+        return vehiclesBatch(vehicleIds);
+    }
+    
+    /**
+     * POST variant for id lists too long for a query string: {"ids": [12, 7, 31]}
+     */
+    @PostMapping("/vehicles/batch")
+    public ResponseEntity<?> postVehiclesBatch(@RequestBody Map<String, Object> request) {
+        if (!(request.get("ids") instanceof List<?> rawIds)) {
+            return badBatchRequest("ids must be an array of vehicle IDs");
+        }
+        List<Long> vehicleIds = new ArrayList<>();
+        for (Object raw : rawIds) {
+            try {
+                vehicleIds.add(raw instanceof Number n ? n.longValue() : Long.valueOf(String.valueOf(raw).trim()));
+            } catch (NumberFormatException e) {
+                return badBatchRequest("Invalid vehicle ID: " + raw);
+            }
+        }
+        return vehiclesBatch(vehicleIds);
+    }
+    
+    private ResponseEntity<?> vehiclesBatch(List<Long> requestedIds) {
+        // Keep the first occurrence of each id so the response order follows the request
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(requestedIds));
+        if (ids.isEmpty()) {
+            return badBatchRequest("At least one vehicle ID is required");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return badBatchRequest("At most " + MAX_BATCH_SIZE + " vehicle IDs can be fetched at once");
+        }
         
-        // Set default image if no images are available
-        String defaultImage = "attached_assets/images/default-vehicle.png";
+        Map<Long, VehicleSearchIndex.Listing> byId = new HashMap<>();
+        try {
+            // One query for the whole batch, through the same projection as the listing lookups
+            for (VehicleListingView view : registrationRepository.findListingsByIdIn(ids)) {
+                byId.put(view.getId(), VehicleSearchIndex.Listing.from(view));
+            }
+        } catch (Exception e) {
+            System.err.println("Error fetching vehicle batch: " + e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Failed to fetch vehicles: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
         
-        // Map image URLs to the expected format
-        photos.put("front", imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage);
-        photos.put("side", imageUrls.size() > 1 ? imageUrls.get(1) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
-        photos.put("back", imageUrls.size() > 2 ? imageUrls.get(2) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
-        photos.put("loading", imageUrls.size() > 3 ? imageUrls.get(3) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
+        List<VehicleDetail> vehicles = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            VehicleSearchIndex.Listing listing = byId.get(id);
+            if (listing == null) {
+                missing.add(id);
+            } else {
+                vehicles.add(VehicleMapper.detail(listing, imageVariantRegistry));
+            }
+        }
         
-        return photos;
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("vehicles", vehicles);
+        response.put("missing", missing);
+        return ResponseEntity.ok(response);
+    }
+    
+    private static ResponseEntity<?> badBatchRequest(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        return ResponseEntity.badRequest().body(errorResponse);
     }
     
     /**
-     * Get vehicles by user ID
+     * Get vehicles by user ID, paginated with the same cursor scheme as search
      */
     @GetMapping("/vehicles/user/{userId}")
-    public ResponseEntity<?> getVehiclesByUserId(@PathVariable("userId") Long userId) {
+    public ResponseEntity<?> getVehiclesByUserId(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         System.out.println("Fetching vehicles for user ID: " + userId);
         
-        // Find the vehicles for this user
-        List<Registration> registrations = registrationRepository.findByUserId(userId);
-        
-        // Create response
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        
-        List<Map<String, Object>> vehicleList = new ArrayList<>();
-        
-        for (Registration reg : registrations) {
-            Map<String, Object> vehicle = new HashMap<>();
-            vehicle.put("id", reg.getId());
-            vehicle.put("userId", reg.getUserId());
-            vehicle.put("name", reg.getFullName() + "'s " + reg.getVehicleType());
-            vehicle.put("type", reg.getVehicleType());
-            vehicle.put("images", reg.getVehicleImageUrls());
-            vehicle.put("locationState", reg.getState());
-            vehicle.put("locationCity", reg.getCity());
-            vehicle.put("locationPincode", reg.getPincode());
-            vehicle.put("ownerName", reg.getFullName());
-            vehicle.put("ownerPhone", reg.getContactNumber());
-            
-            // Use the actual registration date if available, otherwise format today's date
-            String registrationDate = reg.getRegistrationDate() != null 
-                ? reg.getRegistrationDate().toString() 
-                : java.time.LocalDate.now().toString();
-            vehicle.put("registrationDate", registrationDate);
-            
-            vehicle.put("capacity", "Standard capacity");
-            vehicle.put("dimensions", "Standard dimensions");
-            vehicle.put("registrationNumber", reg.getVehiclePlateNumber());
-            vehicle.put("availability", "Available Now");
-            vehicle.put("description", "");
-            
-            // Add service highlights
-            Map<String, String> highlights = new HashMap<>();
-            highlights.put("highlight1", reg.getHighlight1());
-            highlights.put("highlight2", reg.getHighlight2());
-            highlights.put("highlight3", reg.getHighlight3());
-            highlights.put("highlight4", reg.getHighlight4());
-            highlights.put("highlight5", reg.getHighlight5());
-            vehicle.put("highlights", highlights);
-            
-            vehicleList.add(vehicle);
+        Long afterKey;
+        try {
+            afterKey = cursor == null || cursor.isEmpty() ? null : VehicleSearchIndex.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return invalidCursor();
+        }
+        int pageSize = pageSize(limit);
+        
+        VehicleSearchIndex.Page page;
+        if (vehicleSearchIndex.isReady()) {
+            page = vehicleSearchIndex.searchByUser(userId, afterKey, pageSize);
+        } else {
+            List<VehicleSearchIndex.Listing> listings = registrationRepository.findListingsByUserIdOrderByIdAsc(userId).stream()
+                .map(VehicleSearchIndex.Listing::from)
+                .collect(Collectors.toList());
+            page = VehicleSearchIndex.paginate(listings, afterKey, pageSize);
         }
         
-        response.put("vehicles", vehicleList);
-        response.put("count", vehicleList.size());
-        
-        return ResponseEntity.ok(response);
+        String etag = ETagUtil.strong("s", page.version());
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        return streamVehiclePage(page, etag);
     }
     
     /**
@@ -615,6 +794,7 @@ public class VehicleController {
                     registrationId
                 );
                 result.put("deleted_registration", deletedRegistration);
+                vehicleSearchIndex.remove(registrationId);
             } catch (Exception e) {
                 result.put("registration_deletion_error", e.getMessage());
             }
@@ -703,6 +883,7 @@ public class VehicleController {
                 registrationId
             );
             System.out.println("FORCE DELETE: Deleted " + regRows + " rows from registration");
+            vehicleSearchIndex.remove(registrationId);
             
             // Step 7: Re-enable foreign key checks
             System.out.println("FORCE DELETE: Re-enabling foreign key checks");
@@ -13,6 +13,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.demo.service.VehicleSearchIndex;
+
 @RestController
 @RequestMapping("/api/vehicles")
 @CrossOrigin(origins = "*")
@@ -21,6 +23,9 @@ public class VehicleTrustController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+
     /**
      * Endpoint to increment the trust counter for a vehicle
      * 
@@ -59,6 +64,13 @@ public class VehicleTrustController {
 
             // Check if update was successful
             if (rowsAffected > 0) {
+                // Trust feeds the search ranking, so re-rank the listing right away
+                try {
+                    vehicleSearchIndex.updateCallTracking(Long.valueOf(vehicleId.trim()), newValue);
+                } catch (NumberFormatException ignore) {
+                    // not a registration id, nothing to re-rank
+                }
+
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
                 response.put("message", "Trust counter updated successfully");
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * The five free-text service highlights of a vehicle, as {"highlight1": ..., "highlight5": ...}.
+ */
+public record Highlights(String highlight1, String highlight2, String highlight3,
+                         String highlight4, String highlight5) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+/**
+ * What a client paints while an image loads: a BlurHash string and the dominant colour ("#rrggbb").
+ */
+public record ImagePlaceholder(String blurHash, String color) {
+}
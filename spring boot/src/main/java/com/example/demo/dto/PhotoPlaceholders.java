@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * Placeholders for the {@link Photos} slots, slot for slot; a slot is null when its image has none.
+ */
+public record PhotoPlaceholders(ImagePlaceholder front, ImagePlaceholder side, ImagePlaceholder back,
+        ImagePlaceholder loading) {
+}
@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * Image slots shown on the vehicle card. Missing slots fall back to the first image,
+ * or to the default vehicle picture when there are no images at all.
+ */
+public record Photos(String front, String side, String back, String loading) {
+}
@@ -11,6 +11,10 @@ public class PostResponse {
     private Boolean isLightText;
     private String category;
     private String imageUrl;
+    private String imageCardUrl;  // 800px copy, or imageUrl until it exists
+    private String imageThumbUrl; // 320px copy, or imageUrl until it exists
+    private String imageBlurHash; // null when the image has no placeholder
+    private String imageColor;    // dominant colour, "#rrggbb"
     private String status;
     private OffsetDateTime createdAt;
     private OffsetDateTime expiresAt;
@@ -31,6 +35,14 @@ public class PostResponse {
     public void setCategory(String category) { this.category = category; }
     public String getImageUrl() { return imageUrl; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getImageCardUrl() { return imageCardUrl; }
+    public void setImageCardUrl(String imageCardUrl) { this.imageCardUrl = imageCardUrl; }
+    public String getImageThumbUrl() { return imageThumbUrl; }
+    public void setImageThumbUrl(String imageThumbUrl) { this.imageThumbUrl = imageThumbUrl; }
+    public String getImageBlurHash() { return imageBlurHash; }
+    public void setImageBlurHash(String imageBlurHash) { this.imageBlurHash = imageBlurHash; }
+    public String getImageColor() { return imageColor; }
+    public void setImageColor(String imageColor) { this.imageColor = imageColor; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public OffsetDateTime getCreatedAt() { return createdAt; }
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+/**
+ * One vehicle as returned by /api/vehicles/{id}, /api/vehicles/batch and the owner's
+ * vehicle list. The id is numeric, the same as in {@link VehicleSummary}.
+ */
+public record VehicleDetail(
+        Long id,
+        Long userId,
+        String owner,
+        String type,
+        String number,
+        String contact,
+        String whatsapp,
+        String alternateContact,
+        String location,
+        String pincode,
+        String membership,
+        String registrationDate,
+        Photos photos,
+        PhotoPlaceholders photoPlaceholders,
+        Highlights highlights) {
+}
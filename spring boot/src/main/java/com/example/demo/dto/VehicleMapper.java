@@ -0,0 +1,102 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.demo.model.Registration;
+import com.example.demo.service.ImageVariantRegistry;
+import com.example.demo.service.VehicleSearchIndex;
+
+/**
+ * The one place registrations and indexed listings are turned into the vehicle JSON
+ * shapes, so search, per-user listings, detail and batch lookups all agree.
+ */
+public final class VehicleMapper {
+
+    public static final String DEFAULT_VEHICLE_IMAGE = "attached_assets/images/default-vehicle.png";
+
+    private static final Photos NO_PHOTOS = new Photos(
+            DEFAULT_VEHICLE_IMAGE, DEFAULT_VEHICLE_IMAGE, DEFAULT_VEHICLE_IMAGE, DEFAULT_VEHICLE_IMAGE);
+    private static final PhotoPlaceholders NO_PLACEHOLDERS = new PhotoPlaceholders(null, null, null, null);
+
+    private VehicleMapper() {}
+
+    /**
+     * Search card for an indexed listing; {@code distanceKm} is only set for "near" searches.
+     * Card-sized copies and placeholders of the images come from {@code images}.
+     */
+    public static VehicleSummary summary(VehicleSearchIndex.Listing listing, ImageVariantRegistry images,
+                                         Double distanceKm) {
+        return new VehicleSummary(
+                listing.id(),
+                listing.userId(),
+                listing.fullName() + "'s " + listing.vehicleType(),
+                listing.vehicleType(),
+                listing.imageUrls(),
+                images.cards(listing.imageUrls()),
+                images.placeholders(listing.imageUrls()),
+                listing.state(),
+                listing.city(),
+                listing.pincode(),
+                listing.fullName(),
+                listing.contactNumber(),
+                listing.membership(),
+                // Use the actual registration date if available, otherwise today's date
+                listing.registrationDate() != null
+                        ? listing.registrationDate().toString()
+                        : LocalDate.now().toString(),
+                listing.vehiclePlateNumber(),
+                new Highlights(listing.highlight1(), listing.highlight2(), listing.highlight3(),
+                        listing.highlight4(), listing.highlight5()),
+                distanceKm);
+    }
+
+    public static VehicleDetail detail(Registration registration, ImageVariantRegistry images) {
+        return detail(VehicleSearchIndex.Listing.from(registration), images);
+    }
+
+    /**
+     * Detail for a listing read through a projection (e.g. the batch lookup), so every
+     * detail response goes through the same mapping whatever it was loaded as.
+     */
+    public static VehicleDetail detail(VehicleSearchIndex.Listing listing, ImageVariantRegistry images) {
+        return new VehicleDetail(
+                listing.id(),
+                listing.userId(),
+                listing.fullName(),
+                listing.vehicleType(),
+                listing.vehiclePlateNumber(),
+                listing.contactNumber(),
+                listing.whatsappNumber(),
+                listing.alternateContactNumber(),
+                listing.city() + ", " + listing.state(),
+                listing.pincode(),
+                listing.membership(),
+                listing.registrationDate() != null ? listing.registrationDate().toString() : "",
+                photos(listing.imageUrls()),
+                photoPlaceholders(listing.imageUrls(), images),
+                new Highlights(listing.highlight1(), listing.highlight2(), listing.highlight3(),
+                        listing.highlight4(), listing.highlight5()));
+    }
+
+    // Same slot rules as photos(); the default picture has no placeholder
+    static PhotoPlaceholders photoPlaceholders(List<String> imageUrls, ImageVariantRegistry images) {
+        if (imageUrls == null || imageUrls.isEmpty()) return NO_PLACEHOLDERS;
+        ImagePlaceholder first = images.placeholder(imageUrls.get(0));
+        return new PhotoPlaceholders(
+                first,
+                imageUrls.size() > 1 ? images.placeholder(imageUrls.get(1)) : first,
+                imageUrls.size() > 2 ? images.placeholder(imageUrls.get(2)) : first,
+                imageUrls.size() > 3 ? images.placeholder(imageUrls.get(3)) : first);
+    }
+
+    public static Photos photos(List<String> imageUrls) {
+        if (imageUrls == null || imageUrls.isEmpty()) return NO_PHOTOS;
+        String first = imageUrls.get(0);
+        return new Photos(
+                first,
+                imageUrls.size() > 1 ? imageUrls.get(1) : first,
+                imageUrls.size() > 2 ? imageUrls.get(2) : first,
+                imageUrls.size() > 3 ? imageUrls.get(3) : first);
+    }
+}
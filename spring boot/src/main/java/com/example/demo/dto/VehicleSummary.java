@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * One vehicle card in search and per-user listing pages.
+ *
+ * Placeholder fields that are the same for every vehicle (capacity, dimensions,
+ * availability, description) are not stored here; {@link VehicleSummarySerializer}
+ * writes them from pre-encoded constants. {@code cardImages} and {@code placeholders}
+ * line up with {@code images}: the 800px copy of each photo where one exists, and its
+ * BlurHash/colour or null.
+ */
+@JsonSerialize(using = VehicleSummarySerializer.class)
+public record VehicleSummary(
+        Long id,
+        Long userId,
+        String name,
+        String type,
+        List<String> images,
+        List<String> cardImages,
+        List<ImagePlaceholder> placeholders,
+        String locationState,
+        String locationCity,
+        String locationPincode,
+        String ownerName,
+        String ownerPhone,
+        String membership,
+        String registrationDate,
+        String registrationNumber,
+        Highlights highlights,
+        Double distanceKm) {
+}
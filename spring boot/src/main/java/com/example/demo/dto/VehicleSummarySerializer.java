@@ -0,0 +1,144 @@
+package com.example.demo.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Hand-written serializer for {@link VehicleSummary}, the hot path of vehicle search.
+ *
+ * Field names and the constant placeholder values are pre-encoded once, so writing a
+ * vehicle costs no reflection and no per-field string encoding. The output matches
+ * what the search endpoint has always returned, field for field, plus cardImages and placeholders.
+ */
+public class VehicleSummarySerializer extends StdSerializer<VehicleSummary> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString IMAGES = new SerializedString("images");
+    private static final SerializedString CARD_IMAGES = new SerializedString("cardImages");
+    private static final SerializedString PLACEHOLDERS = new SerializedString("placeholders");
+    private static final SerializedString BLUR_HASH = new SerializedString("blurHash");
+    private static final SerializedString COLOR = new SerializedString("color");
+    private static final SerializedString LOCATION_STATE = new SerializedString("locationState");
+    private static final SerializedString LOCATION_CITY = new SerializedString("locationCity");
+    private static final SerializedString LOCATION_PINCODE = new SerializedString("locationPincode");
+    private static final SerializedString OWNER_NAME = new SerializedString("ownerName");
+    private static final SerializedString OWNER_PHONE = new SerializedString("ownerPhone");
+    private static final SerializedString MEMBERSHIP = new SerializedString("membership");
+    private static final SerializedString REGISTRATION_DATE = new SerializedString("registrationDate");
+    private static final SerializedString CAPACITY = new SerializedString("capacity");
+    private static final SerializedString DIMENSIONS = new SerializedString("dimensions");
+    private static final SerializedString REGISTRATION_NUMBER = new SerializedString("registrationNumber");
+    private static final SerializedString AVAILABILITY = new SerializedString("availability");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString HIGHLIGHTS = new SerializedString("highlights");
+    private static final SerializedString HIGHLIGHT_1 = new SerializedString("highlight1");
+    private static final SerializedString HIGHLIGHT_2 = new SerializedString("highlight2");
+    private static final SerializedString HIGHLIGHT_3 = new SerializedString("highlight3");
+    private static final SerializedString HIGHLIGHT_4 = new SerializedString("highlight4");
+    private static final SerializedString HIGHLIGHT_5 = new SerializedString("highlight5");
+    private static final SerializedString DISTANCE_KM = new SerializedString("distanceKm");
+
+    // Add these fields to Registration entity later
+    private static final SerializedString STANDARD_CAPACITY = new SerializedString("Standard capacity");
+    private static final SerializedString STANDARD_DIMENSIONS = new SerializedString("Standard dimensions");
+    private static final SerializedString AVAILABLE_NOW = new SerializedString("Available Now");
+    private static final SerializedString EMPTY = new SerializedString("");
+
+    public VehicleSummarySerializer() {
+        super(VehicleSummary.class);
+    }
+
+    @Override
+    public void serialize(VehicleSummary v, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        writeLong(gen, ID, v.id());
+        writeLong(gen, USER_ID, v.userId());
+        writeString(gen, NAME, v.name());
+        writeString(gen, TYPE, v.type());
+        gen.writeFieldName(IMAGES);
+        gen.writeStartArray();
+        for (String url : v.images()) {
+            gen.writeString(url);
+        }
+        gen.writeEndArray();
+        gen.writeFieldName(CARD_IMAGES);
+        gen.writeStartArray();
+        for (String url : v.cardImages()) {
+            gen.writeString(url);
+        }
+        gen.writeEndArray();
+        gen.writeFieldName(PLACEHOLDERS);
+        gen.writeStartArray();
+        for (ImagePlaceholder p : v.placeholders()) {
+            if (p == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartObject();
+                writeString(gen, BLUR_HASH, p.blurHash());
+                writeString(gen, COLOR, p.color());
+                gen.writeEndObject();
+            }
+        }
+        gen.writeEndArray();
+        writeString(gen, LOCATION_STATE, v.locationState());
+        writeString(gen, LOCATION_CITY, v.locationCity());
+        writeString(gen, LOCATION_PINCODE, v.locationPincode());
+        writeString(gen, OWNER_NAME, v.ownerName());
+        writeString(gen, OWNER_PHONE, v.ownerPhone());
+        writeString(gen, MEMBERSHIP, v.membership());
+        writeString(gen, REGISTRATION_DATE, v.registrationDate());
+        writeConstant(gen, CAPACITY, STANDARD_CAPACITY);
+        writeConstant(gen, DIMENSIONS, STANDARD_DIMENSIONS);
+        writeString(gen, REGISTRATION_NUMBER, v.registrationNumber());
+        writeConstant(gen, AVAILABILITY, AVAILABLE_NOW);
+        writeConstant(gen, DESCRIPTION, EMPTY);
+
+        Highlights h = v.highlights();
+        gen.writeFieldName(HIGHLIGHTS);
+        gen.writeStartObject();
+        writeString(gen, HIGHLIGHT_1, h.highlight1());
+        writeString(gen, HIGHLIGHT_2, h.highlight2());
+        writeString(gen, HIGHLIGHT_3, h.highlight3());
+        writeString(gen, HIGHLIGHT_4, h.highlight4());
+        writeString(gen, HIGHLIGHT_5, h.highlight5());
+        gen.writeEndObject();
+
+        if (v.distanceKm() != null) {
+            gen.writeFieldName(DISTANCE_KM);
+            gen.writeNumber(Math.round(v.distanceKm() * 10) / 10.0);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeLong(JsonGenerator gen, SerializedString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeConstant(JsonGenerator gen, SerializedString name, SerializedString value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeString(value);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.annotations.Immutable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps the vehicle_image_urls_json TEXT column to an immutable list of URLs.
+ *
+ * The reader and writer are built once and are thread-safe, so a load costs one parse
+ * and no ObjectMapper construction. Lists handed out are unmodifiable with null and
+ * empty entries removed; {@link Immutable} tells Hibernate it can keep the same list
+ * as its dirty-checking snapshot instead of round-tripping it through JSON again.
+ */
+@Converter
+@Immutable
+public class ImageUrlListConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER = MAPPER.readerForListOf(String.class);
+    private static final ObjectWriter WRITER = MAPPER.writerFor(MAPPER.getTypeFactory()
+            .constructCollectionType(List.class, String.class));
+
+    @Override
+    public String convertToDatabaseColumn(List<String> urls) {
+        return format(urls);
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String json) {
+        return parse(json);
+    }
+
+    /**
+     * Parse a stored JSON array. Legacy values ("", "[null]") and malformed JSON give an empty list.
+     */
+    public static List<String> parse(String json) {
+        if (json == null || json.isEmpty() || "[]".equals(json) || "[null]".equals(json)) {
+            return List.of();
+        }
+        try {
+            List<String> urls = READER.readValue(json);
+            return clean(urls);
+        } catch (Exception e) {
+            System.err.println("Error parsing vehicleImageUrlsJson: " + e.getMessage());
+            System.err.println("Raw JSON: " + json);
+            return List.of();
+        }
+    }
+
+    /**
+     * Serialize for storage; an empty or null list is stored as "[]".
+     */
+    public static String format(List<String> urls) {
+        if (urls == null || urls.isEmpty()) return "[]";
+        try {
+            return WRITER.writeValueAsString(urls);
+        } catch (Exception e) {
+            System.err.println("Error converting vehicleImageUrls to JSON: " + e.getMessage());
+            return "[]";
+        }
+    }
+
+    /**
+     * Unmodifiable copy of {@code urls} without null or empty entries.
+     */
+    public static List<String> clean(List<String> urls) {
+        if (urls == null || urls.isEmpty()) return List.of();
+        List<String> cleaned = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            if (url != null && !url.isEmpty()) cleaned.add(url);
+        }
+        return List.copyOf(cleaned);
+    }
+}
@@ -2,18 +2,23 @@ package com.example.demo.model;
 
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.util.VehicleUtil;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.validation.constraints.Size;
 
 @Entity
 @Table(name = "registration")
@@ -46,6 +51,15 @@ public class Registration implements Serializable {
     @Column(name = "vehicle_plate_number", nullable = false)
     private String vehiclePlateNumber;
 
+    // Canonical form of vehiclePlateNumber for duplicate checks, recomputed on every save
+    @Column(name = "plate_normalized", length = VehicleUtil.MAX_PLATE_LENGTH)
+    @Size(max = VehicleUtil.MAX_PLATE_LENGTH)
+    private String plateNormalized;
+
+    // Plate as loaded; rows V8 left without plateNormalized keep it that way until the plate is edited
+    @Transient
+    private String loadedPlateNumber;
+
     @Column(name = "state", nullable = false)
     private String state;
 
@@ -61,6 +75,10 @@ public class Registration implements Serializable {
     @Column(name = "membership")
     private String membership = "Standard";
     
+    // Trust counter, incremented with plain SQL by VehicleTrustController; never written through JPA
+    @Column(name = "call_tracking", insertable = false, updatable = false)
+    private Integer callTracking;
+    
     // Service Highlights - up to 5 columns
     @Column(name = "highlight1")
     private String highlight1;
@@ -84,15 +102,10 @@ public class Registration implements Serializable {
     @Column(name = "d_l")
     private String d_l;
 
-    // Change from ElementCollection to directly storing the image URLs as a JSON string
-    // This will store URLs in the same table instead of a separate one
+    // Image URLs stored as a JSON array in one TEXT column, parsed once per load by the converter
+    @Convert(converter = ImageUrlListConverter.class)
     @Column(name = "vehicle_image_urls_json", columnDefinition = "TEXT")
-    private String vehicleImageUrlsJson;
-    
-    // This is a transient field that will not be stored in the database
-    // But will be used to convert between JSON string and List<String>
-    @Transient
-    private List<String> vehicleImageUrls = new ArrayList<>();
+    private List<String> vehicleImageUrls = List.of();
 
     // Default constructor
     public Registration() {
@@ -181,6 +194,27 @@ public class Registration implements Serializable {
         this.vehiclePlateNumber = vehiclePlateNumber;
     }
     
+    public String getPlateNormalized() {
+        return plateNormalized;
+    }
+    
+    @PostLoad
+    void rememberLoadedPlate() {
+        this.loadedPlateNumber = vehiclePlateNumber;
+    }
+    
+    @PrePersist
+    void syncPlateNormalized() {
+        this.plateNormalized = VehicleUtil.normalizePlate(vehiclePlateNumber);
+    }
+    
+    @PreUpdate
+    void syncChangedPlateNormalized() {
+        if (!Objects.equals(vehiclePlateNumber, loadedPlateNumber)) {
+            syncPlateNormalized();
+        }
+    }
+    
     public String getState() {
         return state;
     }
@@ -221,6 +255,10 @@ public class Registration implements Serializable {
         this.membership = membership;
     }
     
+    public Integer getCallTracking() {
+        return callTracking;
+    }
+    
     // Getter and setter for RC
     public String getRc() {
         return rc;
@@ -239,88 +277,23 @@ public class Registration implements Serializable {
         this.d_l = d_l;
     }
 
-    // Modified getter to convert JSON to List
+    // Unmodifiable; use setVehicleImageUrls to change the images
     public List<String> getVehicleImageUrls() {
-        if (vehicleImageUrls == null || vehicleImageUrls.isEmpty()) {
-            // If transient field is empty but we have JSON data, parse it
-            if (vehicleImageUrlsJson != null && !vehicleImageUrlsJson.isEmpty()) {
-                try {
-                    if ("[null]".equals(vehicleImageUrlsJson) || "[]".equals(vehicleImageUrlsJson)) {
-                        // Handle special cases of empty arrays
-                        vehicleImageUrls = new ArrayList<>();
-                    } else {
-                        ObjectMapper objectMapper = new ObjectMapper();
-                        vehicleImageUrls = objectMapper.readValue(vehicleImageUrlsJson, 
-                            objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-                        
-                        // Filter out null values and empty strings
-                        if (vehicleImageUrls != null) {
-                            vehicleImageUrls.removeIf(url -> url == null || url.isEmpty());
-                        }
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error parsing vehicleImageUrlsJson: " + e.getMessage());
-                    System.err.println("Raw JSON: " + vehicleImageUrlsJson);
-                    vehicleImageUrls = new ArrayList<>();
-                }
-            } else {
-                vehicleImageUrls = new ArrayList<>();
-            }
-        }
-        return vehicleImageUrls != null ? vehicleImageUrls : new ArrayList<>();
+        return vehicleImageUrls;
     }
     
-    // Modified setter to convert List to JSON
     public void setVehicleImageUrls(List<String> vehicleImageUrls) {
-        // Filter out null values and empty strings
-        if (vehicleImageUrls != null) {
-            vehicleImageUrls.removeIf(url -> url == null || url.isEmpty());
-        this.vehicleImageUrls = vehicleImageUrls;
-        } else {
-            this.vehicleImageUrls = new ArrayList<>();
-        }
-        
-        // Also update the JSON field
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            this.vehicleImageUrlsJson = objectMapper.writeValueAsString(this.vehicleImageUrls);
-        } catch (Exception e) {
-            System.err.println("Error converting vehicleImageUrls to JSON: " + e.getMessage());
-            this.vehicleImageUrlsJson = "[]";
-        }
+        // Copies, dropping null and empty entries, so callers may pass any list
+        this.vehicleImageUrls = ImageUrlListConverter.clean(vehicleImageUrls);
     }
     
-    // Add direct getter and setter for the JSON field
+    // JSON form of the image URLs, as stored in vehicle_image_urls_json
     public String getVehicleImageUrlsJson() {
-        return vehicleImageUrlsJson;
+        return ImageUrlListConverter.format(vehicleImageUrls);
     }
     
     public void setVehicleImageUrlsJson(String vehicleImageUrlsJson) {
-        this.vehicleImageUrlsJson = vehicleImageUrlsJson;
-        // Also update the transient field
-        if (vehicleImageUrlsJson != null && !vehicleImageUrlsJson.isEmpty()) {
-            try {
-                if ("[null]".equals(vehicleImageUrlsJson) || "[]".equals(vehicleImageUrlsJson)) {
-                    // Handle special cases of empty arrays
-                    this.vehicleImageUrls = new ArrayList<>();
-                } else {
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    this.vehicleImageUrls = objectMapper.readValue(vehicleImageUrlsJson, 
-                        objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
-                    
-                    // Filter out null values and empty strings
-                    if (this.vehicleImageUrls != null) {
-                        this.vehicleImageUrls.removeIf(url -> url == null || url.isEmpty());
-                    }
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing vehicleImageUrlsJson: " + e.getMessage());
-                System.err.println("Raw JSON: " + vehicleImageUrlsJson);
-                this.vehicleImageUrls = new ArrayList<>();
-            }
-        } else {
-            this.vehicleImageUrls = new ArrayList<>();
-        }
+        this.vehicleImageUrls = ImageUrlListConverter.parse(vehicleImageUrlsJson);
     }
     
     // Getters and setters for service highlights
@@ -1,6 +1,8 @@
 package com.example.demo.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +10,10 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.model.Registration;
+import com.example.demo.repository.projection.RegistrationLocationView;
+import com.example.demo.repository.projection.RegistrationMatchView;
+import com.example.demo.repository.projection.RegistrationSummaryView;
+import com.example.demo.repository.projection.VehicleListingView;
 
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, Long> {
@@ -19,8 +25,42 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     @Query("SELECT COUNT(r) FROM Registration r WHERE r.vehicleType = :vehicleType AND r.pincode = :pincode")
     long countByVehicleTypeAndPincode(@Param("vehicleType") String vehicleType, @Param("pincode") String pincode);
     
-    // Here we can add custom queries if needed in future
+    // Filtered listing lookups returning projections, so only the rendered columns are read.
+    // Backed by idx_registration_type_pincode / idx_registration_pincode / idx_registration_user_id (V5).
+    List<VehicleListingView> findListingsByPincodeStartingWithOrderByIdAsc(String pincodePrefix);
+    List<VehicleListingView> findListingsByVehicleTypeAndPincodeStartingWithOrderByIdAsc(String vehicleType, String pincodePrefix);
+    List<VehicleListingView> findListingsByUserIdOrderByIdAsc(Long userId);
+    // Batch lookup by primary key, in no particular order
+    List<VehicleListingView> findListingsByIdIn(Collection<Long> ids);
+    
+    Optional<RegistrationSummaryView> findSummaryById(Long id);
+    List<RegistrationLocationView> findLocationsByUserIdIsNotNull();
     
     // Find registrations by full name containing the search term (case insensitive)
     List<Registration> findByFullNameContainingIgnoreCase(String fullName);
+    
+    // Fuzzy search over name (transliteration-folded), plate and phone, best match first.
+    // pattern is an already-escaped ILIKE pattern ("%term%"), or "" to skip the substring matches;
+    // digits="" skips the phone match. Trigram similarity (%) always applies.
+    @Query(value = "SELECT r.id AS \"id\", r.full_name AS \"fullName\", " +
+            "r.vehicle_plate_number AS \"vehiclePlateNumber\", r.contact_number AS \"contactNumber\", " +
+            "r.vehicle_type AS \"vehicleType\", r.city AS \"city\", r.pincode AS \"pincode\", " +
+            "r.membership AS \"membership\", " +
+            "CAST(GREATEST(similarity(translit_key(r.full_name), translit_key(:q)), " +
+            "  similarity(r.full_name, :q), " +
+            "  similarity(r.vehicle_plate_number, :q), " +
+            "  CASE WHEN :digits <> '' AND r.contact_number LIKE '%' || :digits || '%' THEN 1 ELSE 0 END" +
+            ") AS double precision) AS \"score\" " +
+            "FROM registration r " +
+            "WHERE translit_key(r.full_name) % translit_key(:q) " +
+            "   OR (:pattern <> '' AND r.full_name ILIKE :pattern ESCAPE '\\') " +
+            "   OR r.vehicle_plate_number % :q " +
+            "   OR (:pattern <> '' AND r.vehicle_plate_number ILIKE :pattern ESCAPE '\\') " +
+            "   OR (:digits <> '' AND r.contact_number LIKE '%' || :digits || '%') " +
+            "ORDER BY \"score\" DESC, r.id ASC " +
+            "LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<RegistrationMatchView> searchRanked(@Param("q") String q, @Param("pattern") String pattern,
+                                             @Param("digits") String digits,
+                                             @Param("limit") int limit, @Param("offset") int offset);
 }
@@ -0,0 +1,10 @@
+package com.example.demo.repository.projection;
+
+/**
+ * Just enough of a registration to show where its owner is based.
+ */
+public interface RegistrationLocationView {
+    Long getUserId();
+    String getCity();
+    String getState();
+}
@@ -0,0 +1,16 @@
+package com.example.demo.repository.projection;
+
+/**
+ * A registration hit from the fuzzy admin search, with its similarity score (0..1).
+ */
+public interface RegistrationMatchView {
+    Long getId();
+    String getFullName();
+    String getVehiclePlateNumber();
+    String getContactNumber();
+    String getVehicleType();
+    String getCity();
+    String getPincode();
+    String getMembership();
+    Double getScore();
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Owner, contact and location fields of a registration, without image URLs or documents.
+ */
+public interface RegistrationSummaryView {
+    Long getId();
+    Long getUserId();
+    String getFullName();
+    String getVehicleType();
+    String getVehiclePlateNumber();
+    String getContactNumber();
+    String getWhatsappNumber();
+    String getAlternateContactNumber();
+    String getState();
+    String getCity();
+    String getPincode();
+    LocalDate getRegistrationDate();
+    String getMembership();
+}
@@ -0,0 +1,31 @@
+package com.example.demo.repository.projection;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Closed projection with the registration columns vehicle list cards render.
+ * Leaves out the RC / driving licence document columns.
+ */
+public interface VehicleListingView {
+    Long getId();
+    Long getUserId();
+    String getFullName();
+    String getVehicleType();
+    String getContactNumber();
+    String getWhatsappNumber();
+    String getAlternateContactNumber();
+    String getVehiclePlateNumber();
+    String getState();
+    String getCity();
+    String getPincode();
+    LocalDate getRegistrationDate();
+    String getMembership();
+    Integer getCallTracking();
+    String getHighlight1();
+    String getHighlight2();
+    String getHighlight3();
+    String getHighlight4();
+    String getHighlight5();
+    List<String> getVehicleImageUrls();
+}
@@ -36,6 +36,9 @@ public class ImageMigrationService {
     
     @Autowired
     private RegistrationImageFolderRepository registrationImageFolderRepository;
+
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
     
     private final OkHttpClient client = new OkHttpClient();
     
@@ -101,6 +104,7 @@ public class ImageMigrationService {
                 // Update the registration with the new URLs
                 registration.setVehicleImageUrls(newImageUrls);
                 registrationRepository.save(registration);
+                vehicleSearchIndex.upsert(registration);
                 
                 System.out.println("Updated registration " + registrationId + " with " + newImageUrls.size() + " new image URLs");
             } catch (Exception e) {
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.ImagePlaceholder;
+import com.example.demo.model.ImageUrlListConverter;
+import com.google.common.util.concurrent.RateLimiter;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Computes placeholders for vehicle and post images uploaded before uploads started producing them.
+ *
+ * Downloads run on the job's own small pool and are throttled to rate-per-second, so a large
+ * backlog neither floods storage egress nor competes with uploads for CPU, and the shared
+ * scheduler thread only lists the work. A run is skipped while the previous one is still going.
+ * Only active posts are covered: expired ones are no longer shown. The URLs come from client
+ * data, so images are read back through SupabaseService by bucket and key, never fetched from
+ * whatever host a URL names, and anything over max-bytes is skipped. Images that cannot be
+ * read or decoded are remembered and not retried until restart.
+ */
+@Component
+public class ImagePlaceholderBackfillJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageVariantRegistry imageVariantRegistry;
+    private final SupabaseService supabaseService;
+    private final int maxBytes;
+    private final ExecutorService pool;
+    private final RateLimiter limiter;
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ImagePlaceholderBackfillJob(JdbcTemplate jdbcTemplate,
+                                       ImageVariantRegistry imageVariantRegistry,
+                                       SupabaseService supabaseService,
+                                       @Value("${app.images.backfill.concurrency:2}") int concurrency,
+                                       @Value("${app.images.backfill.rate-per-second:4}") double ratePerSecond,
+                                       @Value("${app.images.backfill.max-bytes:10485760}") int maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageVariantRegistry = imageVariantRegistry;
+        this.supabaseService = supabaseService;
+        this.maxBytes = maxBytes;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "image-placeholder-backfill");
+            t.setDaemon(true);
+            return t;
+        });
+        this.limiter = RateLimiter.create(ratePerSecond);
+    }
+
+    @Scheduled(initialDelayString = "${app.images.backfill.initial-delay-ms:600000}",
+               fixedDelayString = "${app.images.backfill.interval-ms:21600000}")
+    public void backfill() {
+        if (!running.compareAndSet(false, true)) return;
+        long start = System.currentTimeMillis();
+        Set<String> pending = new LinkedHashSet<>();
+        try {
+            jdbcTemplate.query("SELECT vehicle_image_urls_json FROM registration", rs -> {
+                for (String url : ImageUrlListConverter.parse(rs.getString(1))) {
+                    addIfMissing(pending, url);
+                }
+            });
+            jdbcTemplate.query("SELECT image_url FROM posts WHERE status = 'active' AND image_url IS NOT NULL",
+                rs -> {
+                    addIfMissing(pending, rs.getString(1));
+                });
+        } catch (Exception e) {
+            running.set(false);
+            System.err.println("ImagePlaceholderBackfillJob: could not read image urls: " + e.getMessage());
+            return;
+        }
+        if (pending.isEmpty()) {
+            running.set(false);
+            return;
+        }
+
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        try {
+            for (String url : pending) {
+                pool.execute(() -> {
+                    try {
+                        limiter.acquire();
+                        if (process(url)) {
+                            done.incrementAndGet();
+                        } else {
+                            failed.add(url);
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            running.set(false);
+                            System.out.println("ImagePlaceholderBackfillJob: " + done.get() + " of " + pending.size()
+                                + " images processed in " + (System.currentTimeMillis() - start) + " ms");
+                        }
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            running.set(false);
+        }
+    }
+
+    private void addIfMissing(Set<String> pending, String url) {
+        if (url != null && !url.isBlank() && !failed.contains(url)
+                && imageVariantRegistry.placeholder(url) == null) {
+            pending.add(url);
+        }
+    }
+
+    private boolean process(String url) {
+        try {
+            ImagePlaceholder placeholder = ImageProcessor.placeholder(supabaseService.readStoredImage(url, maxBytes));
+            if (placeholder == null) return false;
+            imageVariantRegistry.recordPlaceholder(url, placeholder);
+            return true;
+        } catch (Exception e) {
+            System.err.println("ImagePlaceholderBackfillJob: skipping " + url + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
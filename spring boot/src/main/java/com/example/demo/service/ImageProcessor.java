@@ -0,0 +1,472 @@
+package com.example.demo.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.ImagePlaceholder;
+import com.example.demo.util.BlurHash;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Turns uploaded photos into web-sized images with pure-Java ImageIO.
+ *
+ * An upload is decoded, turned upright using its EXIF orientation, capped to max-edge
+ * pixels on the longest side and re-encoded: JPEG at a tuned quality, or PNG when the
+ * image has transparency. Re-encoding writes no metadata, so EXIF (GPS position, camera
+ * serial) is stripped. The same steps make the card (800px) and thumbnail (320px)
+ * variants. All decoding and encoding runs on a small bounded pool, so a burst of
+ * uploads queues up instead of taking every core and a few hundred MB of heap.
+ *
+ * Prepared uploads also carry a placeholder (BlurHash and dominant colour) computed from
+ * a 32px copy, for clients to paint before the image arrives.
+ *
+ * An upload that cannot be re-encoded (unreadable by ImageIO, pool saturated, timed out)
+ * is never stored as it came: a JPEG or PNG keeps its pixels but loses its metadata
+ * segments, and anything else is refused with an {@link ImageRejectedException}.
+ */
+@Service
+public class ImageProcessor {
+
+    public static final int CARD_EDGE = 800;
+    public static final int THUMB_EDGE = 320;
+
+    // Refuse decompression bombs before allocating the pixels
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final int PLACEHOLDER_EDGE = 32;
+
+    /**
+     * An encoded image ready to store. {@code extension} has no dot; {@code placeholder}
+     * is only set on prepared uploads, not on variants. {@code reencoded} is false for an
+     * upload that was only stripped of metadata; it has no size, placeholder or variants.
+     */
+    public record Encoded(byte[] bytes, String contentType, String extension, int width, int height,
+                          ImagePlaceholder placeholder, boolean reencoded) {}
+
+    /**
+     * An upload that could be neither processed nor stripped of its metadata. Retryable when
+     * the image pool was busy, as opposed to a format that will never be accepted.
+     */
+    public static class ImageRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean retryable;
+
+        public ImageRejectedException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    private final int maxEdge;
+    private final float quality;
+    private final float variantQuality;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor pool;
+
+    public ImageProcessor(@Value("${app.images.max-edge:2048}") int maxEdge,
+                          @Value("${app.images.quality:0.82}") float quality,
+                          @Value("${app.images.variant-quality:0.78}") float variantQuality,
+                          @Value("${app.images.workers:2}") int workers,
+                          @Value("${app.images.queue-size:32}") int queueSize,
+                          @Value("${app.images.timeout-seconds:30}") long timeoutSeconds) {
+        this.maxEdge = maxEdge;
+        this.quality = quality;
+        this.variantQuality = variantQuality;
+        this.timeoutMillis = timeoutSeconds * 1000;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "image-worker-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Decode, orient, cap to max-edge and re-encode an upload. When the bytes are not an image
+     * ImageIO can read (CMYK JPEG, corrupt, too large) or the pool is saturated or too slow, a
+     * JPEG or PNG comes back unscaled with its metadata removed instead.
+     *
+     * @throws ImageRejectedException for any other format in those cases (HEIC, WebP, ...)
+     */
+    public Encoded prepare(byte[] upload) throws ImageRejectedException {
+        return prepare(upload, maxEdge);
+    }
+
+    /**
+     * Same as {@link #prepare(byte[])} with a caller-chosen longest edge.
+     */
+    public Encoded prepare(byte[] upload, int edge) throws ImageRejectedException {
+        Future<Encoded> future;
+        try {
+            future = pool.submit(() -> {
+                BufferedImage image = decode(upload);
+                if (image == null) return null;
+                BufferedImage fitted = fit(image, edge);
+                Encoded encoded = encode(fitted, quality);
+                return new Encoded(encoded.bytes(), encoded.contentType(), encoded.extension(),
+                        encoded.width(), encoded.height(), placeholder(fitted), true);
+            });
+        } catch (RejectedExecutionException e) {
+            return fallback(upload, true, "queue full");
+        }
+        try {
+            Encoded encoded = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return encoded != null ? encoded : fallback(upload, false, "not a readable image");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return fallback(upload, true, "timed out");
+        } catch (ExecutionException e) {
+            return fallback(upload, false, "could not decode: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ImageRejectedException("Image processing was interrupted, please retry", true);
+        }
+    }
+
+    // Metadata-free original when re-encoding was not possible, or a refusal
+    private static Encoded fallback(byte[] upload, boolean busy, String reason) throws ImageRejectedException {
+        Encoded stripped = stripped(upload);
+        if (stripped == null) {
+            System.err.println("ImageProcessor: refusing upload (" + reason + "), its metadata cannot be removed");
+            throw busy
+                    ? new ImageRejectedException("Image processing is busy, please retry", true)
+                    : new ImageRejectedException("Unsupported image format, please upload a JPEG or PNG", false);
+        }
+        System.err.println("ImageProcessor: " + reason + ", storing upload at original size without metadata");
+        return stripped;
+    }
+
+    /**
+     * Run {@code task} (variant encoding and upload) on the image pool without waiting.
+     * Returns false if the queue is full and the task was dropped.
+     */
+    public boolean submit(Runnable task) {
+        try {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    System.err.println("ImageProcessor: background task failed: " + e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Card/thumbnail variant of an already prepared image; call from a pool task.
+     */
+    public Encoded variant(byte[] prepared, int edge) throws IOException {
+        BufferedImage image = decode(prepared);
+        if (image == null) return null;
+        return encode(fit(image, edge), variantQuality);
+    }
+
+    /**
+     * Placeholder for an already stored image (the backfill job), decoded at a fraction of
+     * its size. Null if the bytes are not readable. Runs on the calling thread.
+     */
+    public static ImagePlaceholder placeholder(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Only every n-th pixel is decoded, so a 12 MP photo costs about as much as a thumbnail
+                int step = Math.max(1, longest / (PLACEHOLDER_EDGE * 4));
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage image = orient(reader.read(0, param), exifOrientation(bytes));
+                return placeholder(image);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static ImagePlaceholder placeholder(BufferedImage image) {
+        BufferedImage small = fit(image, PLACEHOLDER_EDGE);
+        boolean portrait = small.getHeight() > small.getWidth();
+        String hash = BlurHash.encode(small, portrait ? 3 : 4, portrait ? 4 : 3);
+        return new ImagePlaceholder(hash, dominantColor(small));
+    }
+
+    // Most common colour at 4 bits per channel, averaged over the pixels in that bucket
+    static String dominantColor(BufferedImage image) {
+        int[] rgb = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        int[] counts = new int[4096];
+        long[] sums = new long[4096 * 3];
+        int best = 0;
+        for (int p : rgb) {
+            int r = (p >> 16) & 0xff;
+            int g = (p >> 8) & 0xff;
+            int b = p & 0xff;
+            int bucket = ((r >> 4) << 8) | ((g >> 4) << 4) | (b >> 4);
+            counts[bucket]++;
+            sums[bucket * 3] += r;
+            sums[bucket * 3 + 1] += g;
+            sums[bucket * 3 + 2] += b;
+            if (counts[bucket] > counts[best]) best = bucket;
+        }
+        int n = Math.max(1, counts[best]);
+        return String.format("#%02x%02x%02x", sums[best * 3] / n, sums[best * 3 + 1] / n, sums[best * 3 + 2] / n);
+    }
+
+    // Null if unreadable or too large; otherwise upright per EXIF orientation
+    static BufferedImage decode(byte[] bytes) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) return null;
+                BufferedImage image = reader.read(0);
+                return orient(image, exifOrientation(bytes));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Scale down so the longest edge is at most maxEdge; halving steps keep the result sharp
+    static BufferedImage fit(BufferedImage src, int edge) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        int longest = Math.max(w, h);
+        boolean alpha = src.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        if (longest <= edge) {
+            return src.getType() == type ? src : redraw(src, w, h, type);
+        }
+        int targetW = Math.max(1, (int) Math.round(w * (double) edge / longest));
+        int targetH = Math.max(1, (int) Math.round(h * (double) edge / longest));
+        BufferedImage current = src;
+        int cw = w;
+        int ch = h;
+        while (cw / 2 >= targetW && ch / 2 >= targetH) {
+            cw /= 2;
+            ch /= 2;
+            current = redraw(current, cw, ch, type);
+        }
+        return redraw(current, targetW, targetH, type);
+    }
+
+    private static BufferedImage redraw(BufferedImage src, int w, int h, int type) {
+        BufferedImage out = new BufferedImage(w, h, type);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (type == BufferedImage.TYPE_INT_RGB) {
+                // JPEG has no alpha; flatten onto white rather than black
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, w, h);
+            }
+            g.drawImage(src, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static Encoded encode(BufferedImage image, float jpegQuality) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return new Encoded(out.toByteArray(), "image/png", "png", image.getWidth(), image.getHeight(), null, true);
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return new Encoded(out.toByteArray(), "image/jpeg", "jpg", image.getWidth(), image.getHeight(), null, true);
+    }
+
+    /**
+     * {@code bytes} without their metadata, for uploads that could not be re-encoded, or null
+     * if they are neither JPEG nor PNG or are malformed. Pixels are untouched, so a photo that
+     * relied on its EXIF orientation is shown as stored.
+     */
+    static Encoded stripped(byte[] bytes) {
+        byte[] jpeg = stripJpeg(bytes);
+        if (jpeg != null) return new Encoded(jpeg, "image/jpeg", "jpg", 0, 0, null, false);
+        byte[] png = stripPng(bytes);
+        if (png != null) return new Encoded(png, "image/png", "png", 0, 0, null, false);
+        return null;
+    }
+
+    // Drops APP1 (EXIF, XMP), APP3-APP13, APP15 and comments; keeps JFIF, ICC (APP2) and Adobe (APP14)
+    static byte[] stripJpeg(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xff) != 0xFF || (b[1] & 0xff) != 0xD8) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(b.length);
+        out.write(b, 0, 2);
+        int pos = 2;
+        while (true) {
+            if (pos + 4 > b.length || (b[pos] & 0xff) != 0xFF) return null;
+            int marker = b[pos + 1] & 0xff;
+            if (marker == 0xFF) { // fill byte
+                pos++;
+                continue;
+            }
+            if (marker == 0xDA) { // start of scan: entropy-coded data and the rest follow
+                out.write(b, pos, b.length - pos);
+                return out.toByteArray();
+            }
+            int length = ((b[pos + 2] & 0xff) << 8) | (b[pos + 3] & 0xff);
+            if (length < 2 || pos + 2 + length > b.length) return null;
+            boolean metadata = marker == 0xE1 || (marker >= 0xE3 && marker <= 0xED) || marker == 0xEF || marker == 0xFE;
+            if (!metadata) out.write(b, pos, 2 + length);
+            pos += 2 + length;
+        }
+    }
+
+    // Drops text, EXIF and timestamp chunks; everything needed to render stays
+    static byte[] stripPng(byte[] b) {
+        if (b.length < 8 || (b[0] & 0xff) != 0x89 || b[1] != 'P' || b[2] != 'N' || b[3] != 'G') return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(b.length);
+        out.write(b, 0, 8);
+        int pos = 8;
+        while (pos + 12 <= b.length) {
+            long length = readInt(b, pos, false) & 0xffffffffL;
+            if (pos + 12 + length > b.length) return null;
+            String type = new String(b, pos + 4, 4, StandardCharsets.US_ASCII);
+            boolean metadata = type.equals("eXIf") || type.equals("tEXt") || type.equals("iTXt")
+                    || type.equals("zTXt") || type.equals("tIME");
+            if (!metadata) out.write(b, pos, (int) (12 + length));
+            pos += (int) (12 + length);
+            if (type.equals("IEND")) return out.toByteArray();
+        }
+        return null;
+    }
+
+    /**
+     * EXIF orientation (1-8) of a JPEG, or 1 when absent or not a JPEG.
+     */
+    static int exifOrientation(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xff) != 0xFF || (b[1] & 0xff) != 0xD8) return 1;
+        int pos = 2;
+        while (pos + 4 <= b.length && (b[pos] & 0xff) == 0xFF) {
+            int marker = b[pos + 1] & 0xff;
+            int length = ((b[pos + 2] & 0xff) << 8) | (b[pos + 3] & 0xff);
+            if (marker == 0xDA || length < 2) break; // start of scan: no more metadata
+            int start = pos + 4;
+            if (marker == 0xE1 && start + 14 <= b.length
+                    && b[start] == 'E' && b[start + 1] == 'x' && b[start + 2] == 'i' && b[start + 3] == 'f') {
+                return tiffOrientation(b, start + 6, Math.min(b.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] b, int tiff, int end) {
+        if (tiff + 8 > end) return 1;
+        boolean little = b[tiff] == 'I';
+        int ifd = tiff + readInt(b, tiff + 4, little);
+        if (ifd + 2 > end || ifd < tiff) return 1;
+        int entries = readShort(b, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) break;
+            if (readShort(b, entry, little) == 0x0112) {
+                int value = readShort(b, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] b, int at, boolean little) {
+        return little
+                ? (b[at] & 0xff) | ((b[at + 1] & 0xff) << 8)
+                : ((b[at] & 0xff) << 8) | (b[at + 1] & 0xff);
+    }
+
+    private static int readInt(byte[] b, int at, boolean little) {
+        return little
+                ? readShort(b, at, true) | (readShort(b, at + 2, true) << 16)
+                : (readShort(b, at, false) << 16) | readShort(b, at + 2, false);
+    }
+
+    // Apply an EXIF orientation so the pixels are upright without the tag
+    static BufferedImage orient(BufferedImage src, int orientation) {
+        if (orientation <= 1 || orientation > 8) return src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        boolean swap = orientation >= 5;
+        // (m00, m10, m01, m11, m02, m12) mapping stored pixels to upright ones
+        AffineTransform t = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // flipped
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotate 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transverse
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);  // 8: rotate 90 counter-clockwise
+        };
+        int type = src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage out = new BufferedImage(swap ? h : w, swap ? w : h, type);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.drawImage(src, t, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
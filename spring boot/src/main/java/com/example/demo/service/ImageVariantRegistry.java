@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.ImagePlaceholder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Which uploaded images have card (800px) and thumbnail (320px) copies, and where,
+ * plus each image's placeholder (BlurHash and dominant colour).
+ *
+ * Variant URLs in image_variants are written only after both copies are in storage.
+ * Rows are mirrored in memory so picking the right size while writing JSON is a map
+ * lookup. An image without variants (not yet processed, or not decodable) is served as is.
+ * Variants arrive after the upload request has finished, so listeners are told when an
+ * image gains them and anything versioned or cached from the image URLs can move on.
+ */
+@Service
+public class ImageVariantRegistry {
+
+    /**
+     * What is known about one original; any part may be null.
+     */
+    public record ImageInfo(String cardUrl, String thumbUrl, ImagePlaceholder placeholder) {}
+
+    /**
+     * Notified after an original gained variants or a placeholder, outside any lock.
+     */
+    public interface ChangeListener {
+        void imageChanged(String originalUrl);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, ImageInfo> variants = new ConcurrentHashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public ImageVariantRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            jdbcTemplate.query(
+                "SELECT original_url, card_url, thumb_url, blurhash, dominant_color FROM image_variants", rs -> {
+                    String blurHash = rs.getString(4);
+                    ImagePlaceholder placeholder = blurHash != null ? new ImagePlaceholder(blurHash, rs.getString(5)) : null;
+                    variants.put(rs.getString(1), new ImageInfo(rs.getString(2), rs.getString(3), placeholder));
+                });
+            System.out.println("ImageVariantRegistry: loaded " + variants.size() + " image variants");
+        } catch (Exception e) {
+            System.err.println("ImageVariantRegistry: could not load variants, serving originals: " + e.getMessage());
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void record(String originalUrl, String cardUrl, String thumbUrl, int width, int height) {
+        jdbcTemplate.update(
+            "INSERT INTO image_variants (original_url, card_url, thumb_url, width, height) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (original_url) DO UPDATE SET card_url = EXCLUDED.card_url, thumb_url = EXCLUDED.thumb_url, " +
+            "width = EXCLUDED.width, height = EXCLUDED.height",
+            originalUrl, cardUrl, thumbUrl, width, height);
+        variants.merge(originalUrl, new ImageInfo(cardUrl, thumbUrl, null),
+            (old, v) -> new ImageInfo(cardUrl, thumbUrl, old.placeholder()));
+        notifyChanged(originalUrl);
+    }
+
+    public void recordPlaceholder(String originalUrl, ImagePlaceholder placeholder) {
+        jdbcTemplate.update(
+            "INSERT INTO image_variants (original_url, blurhash, dominant_color) VALUES (?, ?, ?) " +
+            "ON CONFLICT (original_url) DO UPDATE SET blurhash = EXCLUDED.blurhash, dominant_color = EXCLUDED.dominant_color",
+            originalUrl, placeholder.blurHash(), placeholder.color());
+        variants.merge(originalUrl, new ImageInfo(null, null, placeholder),
+            (old, v) -> new ImageInfo(old.cardUrl(), old.thumbUrl(), placeholder));
+        notifyChanged(originalUrl);
+    }
+
+    private void notifyChanged(String originalUrl) {
+        for (ChangeListener listener : listeners) {
+            listener.imageChanged(originalUrl);
+        }
+    }
+
+    /**
+     * Forget deleted originals and return their variants' URLs, for removal from storage.
+     */
+    public List<String> forget(List<String> originalUrls) {
+        List<String> removed = new ArrayList<>();
+        List<String> originals = new ArrayList<>();
+        for (String url : originalUrls) {
+            ImageInfo info = url == null ? null : variants.remove(url);
+            if (info != null) {
+                if (info.cardUrl() != null) removed.add(info.cardUrl());
+                if (info.thumbUrl() != null) removed.add(info.thumbUrl());
+                originals.add(url);
+            }
+        }
+        if (!originals.isEmpty()) {
+            jdbcTemplate.update(con -> {
+                var ps = con.prepareStatement("DELETE FROM image_variants WHERE original_url = ANY(?)");
+                ps.setArray(1, con.createArrayOf("text", originals.toArray()));
+                return ps;
+            });
+        }
+        return removed;
+    }
+
+    /**
+     * Card-sized copy of {@code url}, or {@code url} itself when there is none.
+     */
+    public String card(String url) {
+        ImageInfo info = url == null ? null : variants.get(url);
+        return info != null && info.cardUrl() != null ? info.cardUrl() : url;
+    }
+
+    /**
+     * Thumbnail copy of {@code url}, or {@code url} itself when there is none.
+     */
+    public String thumb(String url) {
+        ImageInfo info = url == null ? null : variants.get(url);
+        return info != null && info.thumbUrl() != null ? info.thumbUrl() : url;
+    }
+
+    /**
+     * Placeholder of {@code url}, or null when none has been computed.
+     */
+    public ImagePlaceholder placeholder(String url) {
+        ImageInfo info = url == null ? null : variants.get(url);
+        return info != null ? info.placeholder() : null;
+    }
+
+    /**
+     * Hash of everything known about {@code urls}; changes when any of them gains variants or a
+     * placeholder. Stable across restarts, so it can go into ETags.
+     */
+    public long stateOf(List<String> urls) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String url : urls) {
+            ImageInfo info = url == null ? null : variants.get(url);
+            if (info == null) {
+                hasher.putByte((byte) 0);
+                continue;
+            }
+            hasher.putByte((byte) 1);
+            hasher.putString(String.valueOf(info.cardUrl()), StandardCharsets.UTF_8);
+            hasher.putString(String.valueOf(info.thumbUrl()), StandardCharsets.UTF_8);
+            ImagePlaceholder placeholder = info.placeholder();
+            hasher.putString(placeholder != null ? placeholder.blurHash() + placeholder.color() : "", StandardCharsets.UTF_8);
+        }
+        return hasher.hash().asLong();
+    }
+
+    public List<String> cards(List<String> urls) {
+        List<String> result = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            result.add(card(url));
+        }
+        return result;
+    }
+
+    /**
+     * Placeholders lined up with {@code urls}; entries are null where none is known.
+     */
+    public List<ImagePlaceholder> placeholders(List<String> urls) {
+        List<ImagePlaceholder> result = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            result.add(placeholder(url));
+        }
+        return result;
+    }
+}
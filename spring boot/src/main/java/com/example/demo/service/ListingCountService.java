@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Listing counts per city and vehicle type, for SEO pages and the sitemap.
+ *
+ * Counts come from the registration_listing_counts materialized view, refreshed
+ * concurrently every 15 minutes, and are held as an immutable snapshot, so a page
+ * render is a map lookup. On a database without the view (fresh installs, where
+ * Hibernate creates registration after Flyway ran) the same aggregate is run on
+ * the same schedule instead.
+ */
+@Service
+public class ListingCountService {
+
+    private static final String VIEW_SQL =
+        "SELECT city_key, city, vehicle_type, listings FROM registration_listing_counts";
+
+    private static final String FALLBACK_SQL =
+        "SELECT lower(btrim(city)) AS city_key, min(btrim(city)) AS city, vehicle_type, count(*) AS listings " +
+        "FROM registration " +
+        "WHERE city IS NOT NULL AND btrim(city) <> '' AND vehicle_type IS NOT NULL " +
+        "GROUP BY lower(btrim(city)), vehicle_type";
+
+    /**
+     * Listings in one city. {@code byType} is ordered by count, largest first.
+     */
+    public record CityCounts(String city, long total, Map<String, Long> byType) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // city key -> counts; replaced wholesale on refresh
+    private volatile Map<String, CityCounts> counts;
+
+    public ListingCountService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelay = 900000, initialDelay = 900000)
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        try {
+            String sql;
+            if (viewExists()) {
+                jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY registration_listing_counts");
+                sql = VIEW_SQL;
+            } else {
+                sql = FALLBACK_SQL;
+            }
+
+            Map<String, String> names = new HashMap<>();
+            Map<String, Map<String, Long>> types = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                String key = cityKey(rs.getString("city_key"));
+                names.putIfAbsent(key, rs.getString("city"));
+                types.computeIfAbsent(key, k -> new HashMap<>())
+                    .merge(rs.getString("vehicle_type"), rs.getLong("listings"), Long::sum);
+            });
+
+            Map<String, CityCounts> snapshot = new HashMap<>();
+            for (Map.Entry<String, Map<String, Long>> e : types.entrySet()) {
+                List<Map.Entry<String, Long>> sorted = new ArrayList<>(e.getValue().entrySet());
+                sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+                Map<String, Long> byType = new LinkedHashMap<>();
+                long total = 0;
+                for (Map.Entry<String, Long> t : sorted) {
+                    byType.put(t.getKey(), t.getValue());
+                    total += t.getValue();
+                }
+                snapshot.put(e.getKey(),
+                    new CityCounts(names.get(e.getKey()), total, Collections.unmodifiableMap(byType)));
+            }
+            counts = Map.copyOf(snapshot);
+            System.out.println("ListingCountService: " + snapshot.size() + " cities refreshed in "
+                + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("ListingCountService: refresh failed, keeping previous counts: " + e.getMessage());
+        }
+    }
+
+    public boolean isLoaded() {
+        return counts != null;
+    }
+
+    /**
+     * Counts for {@code city} (any case; "navi-mumbai" works), or null if it has no listings
+     * or counts have not been loaded yet.
+     */
+    public CityCounts city(String city) {
+        Map<String, CityCounts> snapshot = counts;
+        if (snapshot == null || city == null) return null;
+        return snapshot.get(cityKey(city));
+    }
+
+    /**
+     * Listings in {@code city}, optionally of one vehicle type; null when counts are not loaded yet.
+     */
+    public Long count(String city, String vehicleType) {
+        if (counts == null) return null;
+        CityCounts c = city(city);
+        if (c == null) return 0L;
+        if (vehicleType == null || vehicleType.isBlank()) return c.total();
+        return c.byType().getOrDefault(vehicleType, 0L);
+    }
+
+    /**
+     * Every city with at least one listing, busiest first.
+     */
+    public List<CityCounts> cities() {
+        Map<String, CityCounts> snapshot = counts;
+        if (snapshot == null) return List.of();
+        List<CityCounts> sorted = new ArrayList<>(snapshot.values());
+        sorted.sort(Comparator.comparingLong(CityCounts::total).reversed());
+        return sorted;
+    }
+
+    private boolean viewExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT to_regclass('public.registration_listing_counts') IS NOT NULL", Boolean.class));
+    }
+
+    private static String cityKey(String city) {
+        return city.replace('-', ' ').trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Offline pincode -> latitude/longitude table.
+ *
+ * Loaded once at startup from a "pincode,lat,lon" CSV into sorted primitive arrays,
+ * so lookups are a binary search with no boxing. Point app.geo.pincode-file at the
+ * full India Post directory export; the bundled file only seeds major head offices.
+ */
+@Service
+public class PincodeGeoTable {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    @Value("${app.geo.pincode-file:classpath:geo/pincodes.csv}")
+    private String pincodeFile;
+
+    private int[] pincodes = new int[0];
+    private float[] latitudes = new float[0];
+    private float[] longitudes = new float[0];
+
+    @PostConstruct
+    public void load() {
+        int[] pins = new int[32768];
+        float[] lats = new float[32768];
+        float[] lons = new float[32768];
+        int n = 0;
+
+        Resource resource = new DefaultResourceLoader().getResource(pincodeFile);
+        try (InputStream in = resource.getInputStream();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("pincode")) continue;
+                String[] parts = line.split(",");
+                if (parts.length < 3) continue;
+                try {
+                    int pin = Integer.parseInt(parts[0].trim());
+                    float lat = Float.parseFloat(parts[1].trim());
+                    float lon = Float.parseFloat(parts[2].trim());
+                    if (n == pins.length) {
+                        pins = Arrays.copyOf(pins, n * 2);
+                        lats = Arrays.copyOf(lats, n * 2);
+                        lons = Arrays.copyOf(lons, n * 2);
+                    }
+                    pins[n] = pin;
+                    lats[n] = lat;
+                    lons[n] = lon;
+                    n++;
+                } catch (NumberFormatException ignore) {
+                    // skip malformed rows
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("PincodeGeoTable: could not load " + pincodeFile + ": " + e.getMessage());
+            return;
+        }
+
+        // Sort all three arrays by pincode so lookups can binary search
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        final int[] unsorted = pins;
+        Arrays.sort(order, (a, b) -> Integer.compare(unsorted[a], unsorted[b]));
+
+        int[] sortedPins = new int[n];
+        float[] sortedLats = new float[n];
+        float[] sortedLons = new float[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int idx = order[i];
+            // keep the first row when the source lists a pincode more than once
+            if (m > 0 && sortedPins[m - 1] == pins[idx]) continue;
+            sortedPins[m] = pins[idx];
+            sortedLats[m] = lats[idx];
+            sortedLons[m] = lons[idx];
+            m++;
+        }
+        this.pincodes = Arrays.copyOf(sortedPins, m);
+        this.latitudes = Arrays.copyOf(sortedLats, m);
+        this.longitudes = Arrays.copyOf(sortedLons, m);
+        System.out.println("PincodeGeoTable: loaded " + m + " pincode locations from " + pincodeFile);
+    }
+
+    public int size() {
+        return pincodes.length;
+    }
+
+    /**
+     * Position of {@code pincode} in the table, or -1 if it has no known location.
+     */
+    public int indexOf(String pincode) {
+        if (pincode == null) return -1;
+        String p = pincode.trim();
+        if (p.length() != 6) return -1;
+        int pin;
+        try {
+            pin = Integer.parseInt(p);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int idx = Arrays.binarySearch(pincodes, pin);
+        return idx >= 0 ? idx : -1;
+    }
+
+    public double latitudeAt(int index) {
+        return latitudes[index];
+    }
+
+    public double longitudeAt(int index) {
+        return longitudes[index];
+    }
+
+    /**
+     * Great-circle distance in kilometres.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.util.VehicleUtil;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Answers "is this plate already registered?" mostly from memory.
+ *
+ * A Bloom filter holds every normalized plate in the table. A miss is a definite "no"
+ * and never touches Postgres, which is the usual answer while someone is typing into
+ * the registration form. A hit is confirmed with an indexed lookup on plate_normalized.
+ * Deleted plates stay in the filter until the next rebuild and only cost that lookup.
+ */
+@Service
+public class PlateNumberRegistry {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+
+    private volatile BloomFilter<CharSequence> plates;
+    // Filter being loaded by rebuild(); add() writes to it too so no new plate is lost in the swap
+    private volatile BloomFilter<CharSequence> building;
+    private volatile long capacity;
+    private final AtomicLong added = new AtomicLong();
+    // Set while a rebuild requested by add() waits for or runs on the scheduler
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    public PlateNumberRegistry(JdbcTemplate jdbcTemplate, TaskScheduler taskScheduler) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    // every 6 hours, to drop plates of deleted vehicles and resize for growth
+    @Scheduled(fixedDelay = 21600000, initialDelay = 21600000)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM registration WHERE plate_normalized IS NOT NULL", Long.class);
+            long newCapacity = Math.max(MIN_CAPACITY, (count == null ? 0 : count) * 2);
+            BloomFilter<CharSequence> filter =
+                BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), newCapacity, FALSE_POSITIVE_RATE);
+            building = filter;
+            AtomicLong loaded = new AtomicLong();
+            jdbcTemplate.query(
+                "SELECT plate_normalized FROM registration WHERE plate_normalized IS NOT NULL",
+                rs -> {
+                    filter.put(rs.getString(1));
+                    loaded.incrementAndGet();
+                });
+            BloomFilter<CharSequence> previous = plates;
+            plates = filter;
+            building = null;
+            capacity = newCapacity;
+            added.set(loaded.get());
+            if (previous != null) {
+                System.out.println("PlateNumberRegistry: rebuilt with " + loaded.get() + " plates in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            } else {
+                System.out.println("PlateNumberRegistry: loaded " + loaded.get() + " plates in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (Exception e) {
+            building = null;
+            System.err.println("PlateNumberRegistry: could not load plates, checks will go to the database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record a newly saved plate. Call after the registration has been stored.
+     */
+    public void add(String plateNumber) {
+        String plate = VehicleUtil.normalizePlate(plateNumber);
+        if (plate == null) return;
+        BloomFilter<CharSequence> next = building;
+        if (next != null) next.put(plate);
+        BloomFilter<CharSequence> filter = plates;
+        if (filter == null) return;
+        filter.put(plate);
+        if (added.incrementAndGet() > capacity && rebuildQueued.compareAndSet(false, true)) {
+            // Past the sizing the false-positive rate was computed for; resize off the request thread
+            taskScheduler.schedule(() -> {
+                try {
+                    rebuild();
+                } finally {
+                    rebuildQueued.set(false);
+                }
+            }, Instant.now());
+        }
+    }
+
+    public boolean exists(String plateNumber) {
+        String plate = VehicleUtil.normalizePlate(plateNumber);
+        if (plate == null) return false;
+        BloomFilter<CharSequence> filter = plates;
+        if (filter != null && !filter.mightContain(plate)) {
+            return false;
+        }
+        Boolean found = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM registration WHERE plate_normalized = ?)", Boolean.class, plate);
+        return Boolean.TRUE.equals(found);
+    }
+}
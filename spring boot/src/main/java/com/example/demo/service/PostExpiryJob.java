@@ -1,56 +1,140 @@
 package com.example.demo.service;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.example.demo.model.Post;
-import com.example.demo.repository.PostRepository;
 
+/**
+ * Expires and purges posts past their expires_at with set-based statements.
+ *
+ * PostExpiryWheel marks posts expired on time; the expire pass here only reconciles
+ * what it missed (posts from another instance, failed batches, downtime). The purge
+ * pass is still the only place rows and their images are deleted.
+ *
+ * Rows are handled in bounded chunks, each its own short statement, so a backlog never
+ * turns into one long transaction or loads posts into memory. Image URLs come back from
+ * DELETE ... RETURNING and are removed from storage in batches after the chunk has
+ * committed, so no database lock is held while waiting on Supabase.
+ */
 @Component
 public class PostExpiryJob {
 
-    private final PostRepository postRepository;
+    private static final String EXPIRE_SQL =
+        "UPDATE posts SET status = 'expired' WHERE id IN (" +
+        "  SELECT id FROM posts WHERE status = 'active' AND expires_at <= ? LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING id";
+
+    private static final String PURGE_SQL =
+        "DELETE FROM posts WHERE id IN (" +
+        "  SELECT id FROM posts WHERE expires_at <= ? LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING image_url";
+
+    private final JdbcTemplate jdbcTemplate;
     private final SupabaseService supabaseService;
+    private final PostFeedStream postFeedStream;
+    private final PostFeedCache postFeedCache;
+    private final int chunkSize;
+    private final int storageBatchSize;
+
+    // Last run and running totals, served by /api/posts/expiry-stats
+    private volatile Map<String, Object> lastRun = Map.of();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalExpired = new AtomicLong();
+    private final AtomicLong totalPurged = new AtomicLong();
+    private final AtomicLong totalImagesDeleted = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
 
-    public PostExpiryJob(PostRepository postRepository, SupabaseService supabaseService) {
-        this.postRepository = postRepository;
+    public PostExpiryJob(JdbcTemplate jdbcTemplate,
+                         SupabaseService supabaseService,
+                         PostFeedStream postFeedStream,
+                         PostFeedCache postFeedCache,
+                         @Value("${app.posts.expiry.chunk-size:500}") int chunkSize,
+                         @Value("${app.posts.expiry.storage-batch-size:100}") int storageBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
         this.supabaseService = supabaseService;
+        this.postFeedStream = postFeedStream;
+        this.postFeedCache = postFeedCache;
+        this.chunkSize = chunkSize;
+        this.storageBatchSize = storageBatchSize;
     }
 
     // every 5 minutes
     @Scheduled(fixedDelay = 300000)
-    @Transactional
     public void expireAndPurge() {
-        OffsetDateTime now = OffsetDateTime.now();
-        // mark expired
-        List<Post> active = postRepository.findActive(now);
-        for (Post p : active) {
-            if (p.getExpiresAt() != null && !p.getExpiresAt().isAfter(now)) {
-                p.setStatus("expired");
-            }
-        }
-        postRepository.saveAll(active);
-
-        // Immediately purge anything that has reached expiry time (no extra delay)
-        // In production, use a bulk delete query for efficiency
-        List<Post> all = postRepository.findAll();
-        for (Post p : all) {
-            if (p.getExpiresAt() != null && !p.getExpiresAt().isAfter(now)) {
-                try {
-                    if (p.getImageUrl() != null && !p.getImageUrl().isBlank()) {
-                        supabaseService.deletePostImageByUrl(p.getImageUrl());
-                    }
-                } catch (Exception ignore) {
-                    // log only in real app
+        long start = System.currentTimeMillis();
+        // Fixed cutoff so a run always terminates, even while new posts keep expiring
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        int expired = 0;
+        int purged = 0;
+        int imagesDeleted = 0;
+        try {
+            // anything the wheel missed; normally nothing is left by now
+            int updated;
+            do {
+                List<String> ids = jdbcTemplate.queryForList(EXPIRE_SQL, String.class, cutoff, chunkSize);
+                updated = ids.size();
+                expired += updated;
+                postFeedStream.postsExpired(ids);
+            } while (updated == chunkSize);
+            if (expired > 0) postFeedCache.invalidate();
+
+            // Immediately purge anything that has reached expiry time (no extra delay)
+            int deleted;
+            do {
+                List<String> returned = jdbcTemplate.queryForList(PURGE_SQL, String.class, cutoff, chunkSize);
+                deleted = returned.size();
+                purged += deleted;
+                List<String> imageUrls = new ArrayList<>(deleted);
+                for (String url : returned) {
+                    if (url != null && !url.isBlank()) imageUrls.add(url);
                 }
-                postRepository.delete(p);
-            }
+                // This chunk is committed; storage cleanup happens outside any transaction
+                if (!imageUrls.isEmpty()) {
+                    imagesDeleted += supabaseService.deletePostImagesByUrl(imageUrls, storageBatchSize);
+                }
+            } while (deleted == chunkSize);
+        } catch (Exception e) {
+            failedRuns.incrementAndGet();
+            System.err.println("PostExpiryJob: run failed after " + expired + " expired / " + purged
+                + " purged: " + e.getMessage());
         }
-    }
-}
 
+        long durationMs = System.currentTimeMillis() - start;
+        runs.incrementAndGet();
+        totalExpired.addAndGet(expired);
+        totalPurged.addAndGet(purged);
+        totalImagesDeleted.addAndGet(imagesDeleted);
+
+        Map<String, Object> run = new HashMap<>();
+        run.put("finishedAt", OffsetDateTime.now().toString());
+        run.put("durationMs", durationMs);
+        run.put("expired", expired);
+        run.put("purged", purged);
+        run.put("imagesDeleted", imagesDeleted);
+        lastRun = run;
 
+        if (expired > 0 || purged > 0) {
+            System.out.println("PostExpiryJob: expired " + expired + ", purged " + purged + ", deleted "
+                + imagesDeleted + " images in " + durationMs + " ms");
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("lastRun", lastRun);
+        result.put("runs", runs.get());
+        result.put("failedRuns", failedRuns.get());
+        result.put("totalExpired", totalExpired.get());
+        result.put("totalPurged", totalPurged.get());
+        result.put("totalImagesDeleted", totalImagesDeleted.get());
+        return result;
+    }
+}
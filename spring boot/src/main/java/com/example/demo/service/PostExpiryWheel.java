@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Expires each post at its expires_at, to the second, instead of on the next
+ * PostExpiryJob run.
+ *
+ * Deadlines sit in a hierarchical timing wheel: 4 levels of 64 slots, with one-second
+ * ticks at the bottom. Level 0 covers the next minute, level 1 the next ~68 minutes,
+ * level 2 ~3 days and level 3 ~194 days. Scheduling a post is O(1). When a level 0
+ * slot comes up, its posts are due. When a lower level wraps, the next slot of the
+ * level above is spread back down. Everything due in a second becomes one UPDATE.
+ *
+ * The wheel is loaded from posts at startup and fed by new posts. PostExpiryJob still
+ * runs as the fallback for anything missed, e.g. posts created on another instance.
+ */
+@Service
+public class PostExpiryWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    private static final String EXPIRE_SQL =
+        "UPDATE posts SET status = 'expired' " +
+        "WHERE id = ANY(?) AND status = 'active' AND expires_at <= now() RETURNING id";
+
+    private record Entry(String postId, long tick) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PostFeedStream postFeedStream;
+    private final PostFeedCache postFeedCache;
+
+    // [level][slot], null for an empty slot; guarded by this
+    private final List<List<List<Entry>>> wheel = new ArrayList<>(LEVELS);
+    private List<Entry> due = new ArrayList<>();
+    private long currentTick = nowTick();
+    private int pending;
+
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    public PostExpiryWheel(JdbcTemplate jdbcTemplate, PostFeedStream postFeedStream, PostFeedCache postFeedCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postFeedStream = postFeedStream;
+        this.postFeedCache = postFeedCache;
+        for (int level = 0; level < LEVELS; level++) {
+            wheel.add(new ArrayList<>(Collections.nCopies(SLOTS, null)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        long start = System.currentTimeMillis();
+        try {
+            AtomicLong loaded = new AtomicLong();
+            jdbcTemplate.query("SELECT id, expires_at FROM posts WHERE status = 'active'", rs -> {
+                schedule(rs.getString("id"), rs.getObject("expires_at", OffsetDateTime.class));
+                loaded.incrementAndGet();
+            });
+            System.out.println("PostExpiryWheel: loaded " + loaded.get() + " active posts in "
+                + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("PostExpiryWheel: could not load posts, PostExpiryJob will expire them: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Expire {@code postId} at {@code expiresAt}; a deadline in the past fires on the next tick.
+     */
+    public void schedule(String postId, OffsetDateTime expiresAt) {
+        if (postId == null || expiresAt == null) return;
+        // Round up, so a post is never marked expired before its expires_at
+        long tick = Math.floorDiv(expiresAt.toInstant().toEpochMilli() + 999, 1000);
+        synchronized (this) {
+            insert(new Entry(postId, tick));
+            pending++;
+        }
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        advanceTo(nowTick());
+    }
+
+    // Runs every tick up to and including target (epoch seconds) and expires what came due
+    void advanceTo(long target) {
+        List<Entry> batch;
+        synchronized (this) {
+            while (currentTick < target) {
+                currentTick++;
+                cascade(currentTick);
+                List<Entry> slot = wheel.get(0).set((int) (currentTick & MASK), null);
+                if (slot != null) {
+                    due.addAll(slot);
+                }
+            }
+            if (due.isEmpty()) return;
+            batch = due;
+            due = new ArrayList<>();
+            pending -= batch.size();
+        }
+        fired.addAndGet(batch.size());
+        expire(batch);
+    }
+
+    private void expire(List<Entry> batch) {
+        String[] ids = new String[batch.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = batch.get(i).postId();
+        try {
+            List<String> done = jdbcTemplate.query(EXPIRE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)),
+                (rs, i) -> rs.getString(1));
+            batches.incrementAndGet();
+            expired.addAndGet(done.size());
+            postFeedStream.postsExpired(done);
+        } catch (Exception e) {
+            // Left active; the next PostExpiryJob run picks them up
+            failedBatches.incrementAndGet();
+            System.err.println("PostExpiryWheel: failed to expire " + ids.length + " posts: " + e.getMessage());
+        } finally {
+            // Whatever fired is past expires_at, even rows this UPDATE skipped or failed on,
+            // so the cached feed must not keep showing them
+            postFeedCache.invalidate();
+        }
+    }
+
+    // Entering tick t: every level whose lower bits all wrapped to zero hands its next slot down
+    private void cascade(long t) {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((t & ((1L << (BITS * level)) - 1)) != 0) continue;
+            int index = (int) ((t >>> (BITS * level)) & MASK);
+            List<Entry> slot = wheel.get(level).set(index, null);
+            if (slot == null) continue;
+            for (Entry e : slot) insert(e);
+        }
+    }
+
+    private void insert(Entry e) {
+        long delta = e.tick() - currentTick;
+        if (delta <= 0) {
+            due.add(e);
+            return;
+        }
+        // Past the top level: park at its far end and re-place on the way down
+        long tick = delta < MAX_SPAN ? e.tick() : currentTick + MAX_SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && (tick - currentTick) >= (1L << (BITS * (level + 1)))) level++;
+        int index = (int) ((tick >>> (BITS * level)) & MASK);
+        List<Entry> slot = wheel.get(level).get(index);
+        if (slot == null) {
+            slot = new ArrayList<>();
+            wheel.get(level).set(index, slot);
+        }
+        slot.add(e);
+    }
+
+    private static long nowTick() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new HashMap<>();
+        synchronized (this) {
+            result.put("pending", pending);
+        }
+        result.put("fired", fired.get());
+        result.put("expired", expired.get());
+        result.put("batches", batches.get());
+        result.put("failedBatches", failedBatches.get());
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.PostResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The active posts feed, held in memory per category with its JSON already written.
+ *
+ * Posts only change when one is created or expires, so GET /api/posts is served from an
+ * immutable snapshot that is rebuilt and swapped in on those events. Readers take the
+ * volatile reference and never lock. A change only marks the snapshot dirty and queues one
+ * rebuild on the task scheduler; changes that arrive before it starts share it. Until it
+ * lands, readers go to the database rather than see a feed missing the change.
+ *
+ * A snapshot older than max-staleness-seconds is not served either: it also gets a rebuild
+ * queued, and readers use the database meanwhile. That bound also caps how long posts
+ * created on another instance take to show up here.
+ */
+@Service
+public class PostFeedCache {
+
+    private static final String ALL = "All";
+    private static final byte[] EMPTY_JSON = "[]".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Pre-serialized feed for one category, with an ETag that changes with every rebuild.
+     */
+    public record Feed(byte[] json, String etag) {}
+
+    private record Snapshot(long version, long builtAt, List<PostResponse> posts, Map<String, byte[]> json) {}
+
+    private final PostService postService;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final long maxStalenessMillis;
+
+    // bumped on every change; a snapshot built after reading it covers that change
+    private final AtomicLong changes = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Set while a rebuild waits on the scheduler; cleared as it starts so later changes queue another
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    public PostFeedCache(PostService postService,
+                         ObjectMapper objectMapper,
+                         TaskScheduler taskScheduler,
+                         @Value("${app.posts.feed-cache.max-staleness-seconds:60}") long maxStalenessSeconds) {
+        this.postService = postService;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.maxStalenessMillis = maxStalenessSeconds * 1000;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuildIfBehind();
+    }
+
+    /**
+     * Call after posts were created or expired. Returns at once; the feed is read from the
+     * database until a snapshot including the change is live.
+     */
+    public void invalidate() {
+        changes.incrementAndGet();
+        queueRebuild();
+    }
+
+    /**
+     * Feed JSON for {@code category} ("All" or blank for everything), or null if the caller
+     * should read the database instead.
+     */
+    public Feed feed(String category) {
+        Snapshot snap = fresh();
+        if (snap == null) return null;
+        String key = category == null || category.isBlank() || category.equalsIgnoreCase(ALL) ? ALL : category;
+        byte[] json = snap.json().getOrDefault(key, EMPTY_JSON);
+        return new Feed(json, "\"feed-" + Long.toString(snap.builtAt(), 36) + "-" + snap.version() + "\"");
+    }
+
+    /**
+     * Active posts created after {@code after}, newest first, or null to read the database instead.
+     */
+    public List<PostResponse> createdAfter(OffsetDateTime after) {
+        Snapshot snap = fresh();
+        if (snap == null) return null;
+        List<PostResponse> result = new ArrayList<>();
+        for (PostResponse p : snap.posts()) {
+            if (p.getCreatedAt() != null && p.getCreatedAt().isAfter(after)) result.add(p);
+        }
+        return result;
+    }
+
+    private Snapshot fresh() {
+        Snapshot snap = snapshot;
+        if (snap != null && snap.version() >= changes.get()
+                && System.currentTimeMillis() - snap.builtAt() <= maxStalenessMillis) {
+            return snap;
+        }
+        // Dirty, stale or missing: rebuild in the background and read the database meanwhile
+        queueRebuild();
+        return null;
+    }
+
+    private void queueRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) return;
+        try {
+            taskScheduler.schedule(() -> {
+                rebuildQueued.set(false);
+                rebuildIfBehind();
+            }, Instant.now());
+        } catch (RuntimeException e) {
+            // Scheduler shut down or saturated; the next reader tries again
+            rebuildQueued.set(false);
+            System.err.println("PostFeedCache: could not queue rebuild: " + e.getMessage());
+        }
+    }
+
+    private void rebuildIfBehind() {
+        rebuildLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && current.version() >= changes.get()
+                    && System.currentTimeMillis() - current.builtAt() <= maxStalenessMillis) {
+                return;
+            }
+            rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // caller holds rebuildLock
+    private void rebuild() {
+        long version = changes.get();
+        long start = System.currentTimeMillis();
+        try {
+            List<PostResponse> posts = postService.list(null, null);
+            Map<String, List<PostResponse>> byCategory = new LinkedHashMap<>();
+            for (PostResponse p : posts) {
+                byCategory.computeIfAbsent(p.getCategory(), k -> new ArrayList<>()).add(p);
+            }
+            Map<String, byte[]> json = new HashMap<>();
+            json.put(ALL, objectMapper.writeValueAsBytes(posts));
+            for (Map.Entry<String, List<PostResponse>> e : byCategory.entrySet()) {
+                json.put(e.getKey(), objectMapper.writeValueAsBytes(e.getValue()));
+            }
+            snapshot = new Snapshot(version, start, List.copyOf(posts), Map.copyOf(json));
+        } catch (Exception e) {
+            // Serving the old snapshot would hide the change that triggered this; read the database instead
+            snapshot = null;
+            System.err.println("PostFeedCache: rebuild failed, serving from the database: " + e.getMessage());
+        }
+    }
+}
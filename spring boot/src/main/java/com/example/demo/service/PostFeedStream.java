@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.demo.dto.PostResponse;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes feed changes to /api/posts/stream subscribers, so open tabs stop polling.
+ *
+ * Events: "created" carries the new post, "expired" carries {ids: [...]} for posts that
+ * left the feed, and "reset" tells a client it missed too much and should reload the list.
+ * A fresh connection first gets "ready", so it has an id to resume from.
+ *
+ * The last events are kept in a ring buffer; a reconnecting EventSource sends Last-Event-ID
+ * and gets everything after it replayed. Ids are "{startup}-{sequence}", so an id from
+ * before a restart is recognised and answered with a reset.
+ *
+ * All buffer and emitter work runs on one thread, which keeps the events in order for
+ * every subscriber and makes a replay and the live stream meet without gaps or repeats.
+ */
+@Service
+public class PostFeedStream {
+
+    private record Event(long seq, String name, Object data) {}
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Event[] ring;
+    private long nextSeq = 1; // only touched on the fan-out thread
+
+    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "post-feed-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public PostFeedStream(@Value("${app.posts.stream.buffer-size:1000}") int bufferSize) {
+        this.ring = new Event[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * Subscribe, replaying everything after {@code lastEventId} when it is given.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = newEmitter();
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        fanOut.execute(() -> {
+            try {
+                replay(emitter, lastEventId);
+                emitters.add(emitter);
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            } catch (Exception e) {
+                // Already completed or timed out before the replay ran; nothing left to send to
+                emitters.remove(emitter);
+            }
+        });
+        return emitter;
+    }
+
+    // No timeout: the client's EventSource decides when to go away
+    SseEmitter newEmitter() {
+        return new SseEmitter(0L);
+    }
+
+    public void postCreated(PostResponse post) {
+        publish("created", post);
+    }
+
+    public void postsExpired(List<String> ids) {
+        if (ids.isEmpty()) return;
+        publish("expired", Map.of("ids", List.copyOf(ids)));
+    }
+
+    public int subscriberCount() {
+        return emitters.size();
+    }
+
+    private void publish(String name, Object data) {
+        fanOut.execute(() -> {
+            Event event = new Event(nextSeq++, name, data);
+            ring[(int) (event.seq() % ring.length)] = event;
+            for (SseEmitter em : emitters) {
+                try {
+                    send(em, event);
+                } catch (Exception e) {
+                    // IOException for a dropped client, IllegalStateException for a completed emitter
+                    emitters.remove(em);
+                }
+            }
+        });
+    }
+
+    private void replay(SseEmitter emitter, String lastEventId) throws IOException {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            emitter.send(SseEmitter.event().id(eventId(nextSeq - 1)).name("ready").data(Map.of()));
+            return;
+        }
+        long oldest = Math.max(1, nextSeq - ring.length);
+        long after = parseSeq(lastEventId);
+        // Unknown id, another instance's id, or older than the buffer: the client must reload
+        if (after < 0 || after + 1 < oldest || after >= nextSeq) {
+            emitter.send(SseEmitter.event().id(eventId(nextSeq - 1)).name("reset").data(Map.of()));
+            return;
+        }
+        for (long seq = after + 1; seq < nextSeq; seq++) {
+            send(emitter, ring[(int) (seq % ring.length)]);
+        }
+    }
+
+    private long parseSeq(String lastEventId) {
+        int dash = lastEventId.indexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) return -1;
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void send(SseEmitter emitter, Event event) throws IOException {
+        emitter.send(SseEmitter.event().id(eventId(event.seq())).name(event.name()).data(event.data()));
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    @Scheduled(fixedDelay = 25000)
+    public void keepAlive() {
+        // Comment lines keep proxies from closing idle streams without moving Last-Event-ID
+        fanOut.execute(() -> {
+            for (SseEmitter em : emitters) {
+                try { em.send(SseEmitter.event().comment("ping")); }
+                catch (Exception e) { emitters.remove(em); }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        for (SseEmitter em : emitters) {
+            em.complete();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the daily partitions of posts (see V10__partition_posts_by_day.sql) in shape.
+ *
+ * Upcoming days are created ahead of time so inserts never land in posts_default.
+ * A day whose posts have all expired is dropped as a whole table, which is constant
+ * time and leaves nothing to vacuum. PostExpiryJob usually empties a day long before
+ * that; any images still referenced are removed from storage after the drop.
+ */
+@Component
+public class PostPartitionMaintenance {
+
+    private static final String PREFIX = "posts_p";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = 'public.posts'::regclass AND c.relname ~ '^posts_p[0-9]{8}$'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SupabaseService supabaseService;
+    private final int daysAhead;
+    private final int retentionHours;
+    private final int storageBatchSize;
+
+    public PostPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                    SupabaseService supabaseService,
+                                    @Value("${app.posts.partitions.days-ahead:7}") int daysAhead,
+                                    @Value("${app.posts.partitions.retention-hours:48}") int retentionHours,
+                                    @Value("${app.posts.expiry.storage-batch-size:100}") int storageBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.supabaseService = supabaseService;
+        this.daysAhead = daysAhead;
+        this.retentionHours = retentionHours;
+        this.storageBatchSize = storageBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    // hourly; a missed run only means fewer days ahead
+    @Scheduled(fixedDelay = 3600000, initialDelay = 3600000)
+    public synchronized void maintain() {
+        try {
+            if (!isPartitioned()) return;
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (int i = 0; i <= daysAhead; i++) {
+                createPartition(today.plusDays(i));
+            }
+            dropExpiredPartitions();
+        } catch (Exception e) {
+            System.err.println("PostPartitionMaintenance: run failed: " + e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('public.posts'))",
+            Boolean.class));
+    }
+
+    private void createPartition(LocalDate day) {
+        OffsetDateTime from = day.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = from.plusDays(1);
+        try {
+            // Names and bounds are generated here, never from input
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PREFIX + DAY.format(day)
+                + " PARTITION OF posts FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        } catch (Exception e) {
+            // Typically posts_default already holds rows for that day
+            System.err.println("PostPartitionMaintenance: could not create partition for " + day + ": " + e.getMessage());
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusHours(retentionHours);
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(name.substring(PREFIX.length()), DAY);
+            } catch (DateTimeParseException e) {
+                continue;
+            }
+            OffsetDateTime dayEnd = day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (dayEnd.isAfter(cutoff)) continue;
+
+            // A post with a custom, longer expiry keeps its day around until it is gone
+            Boolean live = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + name + " WHERE expires_at > now())", Boolean.class);
+            if (Boolean.TRUE.equals(live)) continue;
+
+            List<String> imageUrls = jdbcTemplate.queryForList(
+                "SELECT image_url FROM " + name + " WHERE image_url IS NOT NULL AND image_url <> ''", String.class);
+            jdbcTemplate.execute("DROP TABLE " + name);
+            int imagesDeleted = imageUrls.isEmpty() ? 0 : supabaseService.deletePostImagesByUrl(imageUrls, storageBatchSize);
+            System.out.println("PostPartitionMaintenance: dropped " + name
+                + (imageUrls.isEmpty() ? "" : ", deleted " + imagesDeleted + " images"));
+        }
+    }
+}
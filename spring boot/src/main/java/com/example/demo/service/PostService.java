@@ -1,12 +1,21 @@
 package com.example.demo.service;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.dto.ImagePlaceholder;
 import com.example.demo.dto.PostCreateRequest;
 import com.example.demo.dto.PostResponse;
 import com.example.demo.model.Post;
@@ -15,10 +24,31 @@ import com.example.demo.repository.PostRepository;
 @Service
 public class PostService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String PAGE_COLUMNS =
+        "SELECT id, user_id, content, background_css, font_size, is_light_text, category, image_url, " +
+        "status, created_at, expires_at FROM posts WHERE status = 'active' AND expires_at > ? ";
+
+    // (created_at, id) keyset; created_at drives idx_posts_created_at / idx_posts_category_created
+    private static final String KEYSET = "AND (created_at, id) < (?, ?::uuid) ";
+    private static final String ORDER = "ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    /**
+     * One page of the feed, newest first. {@code nextCursor} is null on the last page.
+     */
+    public record PostPage(List<PostResponse> posts, String nextCursor) {}
+
     private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageVariantRegistry imageVariantRegistry;
 
-    public PostService(PostRepository postRepository) {
+    public PostService(PostRepository postRepository, JdbcTemplate jdbcTemplate,
+                       ImageVariantRegistry imageVariantRegistry) {
         this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageVariantRegistry = imageVariantRegistry;
     }
 
     private static final List<String> ALLOWED_CATEGORIES = List.of(
@@ -58,6 +88,85 @@ public class PostService {
         return list.stream().map(this::toDto).collect(Collectors.toList());
     }
 
+    /**
+     * Active posts older than {@code before} (a cursor from a previous page, or null for the
+     * newest), at most {@code limit}. Throws IllegalArgumentException for a bad cursor.
+     */
+    public PostPage page(String category, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        boolean byCategory = category != null && !category.isBlank() && !category.equalsIgnoreCase("All");
+
+        StringBuilder sql = new StringBuilder(PAGE_COLUMNS);
+        List<Object> args = new ArrayList<>();
+        args.add(OffsetDateTime.now());
+        if (byCategory) {
+            sql.append("AND category = ? ");
+            args.add(category);
+        }
+        if (before != null && !before.isEmpty()) {
+            Cursor cursor = decodeCursor(before);
+            sql.append(KEYSET);
+            args.add(cursor.createdAt());
+            args.add(cursor.id());
+        }
+        sql.append(ORDER);
+        // One extra row tells us whether another page exists
+        args.add(pageSize + 1);
+
+        List<PostResponse> rows = jdbcTemplate.query(sql.toString(), (rs, i) -> toDto(rs), args.toArray());
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            PostResponse last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new PostPage(List.copyOf(rows), nextCursor);
+    }
+
+    private record Cursor(OffsetDateTime createdAt, String id) {}
+
+    static String encodeCursor(OffsetDateTime createdAt, String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int sep = raw.indexOf('|');
+            OffsetDateTime createdAt = OffsetDateTime.parse(raw.substring(0, sep));
+            String id = UUID.fromString(raw.substring(sep + 1)).toString();
+            return new Cursor(createdAt, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private PostResponse toDto(ResultSet rs) throws SQLException {
+        PostResponse r = new PostResponse();
+        r.setId(rs.getString("id"));
+        r.setUserId(rs.getLong("user_id"));
+        r.setContent(rs.getString("content"));
+        r.setBackgroundCss(rs.getString("background_css"));
+        r.setFontSize(rs.getInt("font_size"));
+        r.setIsLightText(rs.getBoolean("is_light_text"));
+        r.setCategory(rs.getString("category"));
+        r.setImageUrl(rs.getString("image_url"));
+        r.setImageCardUrl(imageVariantRegistry.card(r.getImageUrl()));
+        r.setImageThumbUrl(imageVariantRegistry.thumb(r.getImageUrl()));
+        setPlaceholder(r, imageVariantRegistry.placeholder(r.getImageUrl()));
+        r.setStatus(rs.getString("status"));
+        r.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        r.setExpiresAt(rs.getObject("expires_at", OffsetDateTime.class));
+        return r;
+    }
+
+    private static void setPlaceholder(PostResponse r, ImagePlaceholder placeholder) {
+        if (placeholder == null) return;
+        r.setImageBlurHash(placeholder.blurHash());
+        r.setImageColor(placeholder.color());
+    }
+
     private PostResponse toDto(Post p) {
         PostResponse r = new PostResponse();
         r.setId(p.getId());
@@ -68,6 +177,9 @@ public class PostService {
         r.setIsLightText(p.getIsLightText());
         r.setCategory(p.getCategory());
         r.setImageUrl(p.getImageUrl());
+        r.setImageCardUrl(imageVariantRegistry.card(p.getImageUrl()));
+        r.setImageThumbUrl(imageVariantRegistry.thumb(p.getImageUrl()));
+        setPlaceholder(r, imageVariantRegistry.placeholder(p.getImageUrl()));
         r.setStatus(p.getStatus());
         r.setCreatedAt(p.getCreatedAt());
         r.setExpiresAt(p.getExpiresAt());
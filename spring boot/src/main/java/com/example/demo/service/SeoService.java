@@ -8,6 +8,7 @@ import java.util.Map;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.util.CityUtil;
+import com.example.demo.util.VehicleTypeNormalizer;
 import com.example.demo.util.VehicleUtil;
 
 @Service
@@ -19,9 +20,16 @@ public class SeoService {
             String keywords,
             String heading,
             String canonicalUrl,
-            String jsonLd
+            String jsonLd,
+            Long listingCount
     ) {}
 
+    private final ListingCountService listingCountService;
+
+    public SeoService(ListingCountService listingCountService) {
+        this.listingCountService = listingCountService;
+    }
+
     public SeoMeta buildMeta(String path,
                              String baseUrl,
                              String cityParam,
@@ -30,12 +38,15 @@ public class SeoService {
                              Map<String, String> requestParams) {
 
         String normalizedCity = normalizeCity(cityParam);
-        String normalizedType = VehicleUtil.normalizeType(typeParam);
+        String normalizedType = normalizeType(typeParam);
         String intent = normalizeIntent(intentParam, normalizedType);
 
         // Build canonical URL with preserved relevant params
         String canonicalUrl = buildCanonicalUrl(baseUrl, path, normalizedCity, normalizedType, intent, requestParams);
 
+        // Live count from the periodically refreshed summary; null when there is no city or no data yet
+        Long listingCount = normalizedCity != null ? listingCountService.count(normalizedCity, normalizedType) : null;
+
         String title;
         String description;
         String heading;
@@ -52,8 +63,13 @@ public class SeoService {
             String typeStr = (normalizedType != null && !normalizedType.isBlank()) ? normalizedType : "Transport Vehicles";
             String cityStr = (normalizedCity != null && !normalizedCity.isBlank()) ? (" in " + normalizedCity) : "";
             title = "Find " + typeStr + cityStr + " | Herapheri Goods";
-            description = "Find the best " + typeStr.toLowerCase(Locale.ROOT) + (normalizedCity != null && !normalizedCity.isBlank() ? " near you in " + normalizedCity : " near you")
-                    + ". Select your pincode and vehicle type to see verified owners with photos. No middlemen.";
+            if (listingCount != null && listingCount > 0) {
+                description = listingCount + " " + typeStr.toLowerCase(Locale.ROOT) + " listed in " + normalizedCity
+                        + ". Select your pincode and vehicle type to see verified owners with photos. No middlemen.";
+            } else {
+                description = "Find the best " + typeStr.toLowerCase(Locale.ROOT) + (normalizedCity != null && !normalizedCity.isBlank() ? " near you in " + normalizedCity : " near you")
+                        + ". Select your pincode and vehicle type to see verified owners with photos. No middlemen.";
+            }
             heading = "Find " + typeStr + cityStr;
         } else { // homepage and others
             if ((normalizedType != null && !normalizedType.isBlank()) || (normalizedCity != null && !normalizedCity.isBlank())) {
@@ -61,6 +77,7 @@ public class SeoService {
                 title = "Herapheri Goods" + cityStr2 + " | Find " + (normalizedType != null && !normalizedType.isBlank() ? normalizedType : "Transport Vehicles") + cityStr2;
                 description = "Search by pincode to find " + (normalizedType != null && !normalizedType.isBlank() ? normalizedType.toLowerCase(Locale.ROOT) : "transport vehicles")
                         + (normalizedCity != null && !normalizedCity.isBlank() ? " near you in " + normalizedCity : " near you")
+                        + (listingCount != null && listingCount > 0 ? " from " + listingCount + " listed vehicles" : "")
                         + ". Contact owners directly. No brokers.";
                 heading = "Finding " + (normalizedType != null && !normalizedType.isBlank() ? normalizedType : "Transport Vehicles") + cityStr2;
             } else {
@@ -73,15 +90,24 @@ public class SeoService {
         String keywords = buildKeywords(normalizedCity, normalizedType);
         String jsonLd = buildJsonLd(path, intent, baseUrl);
 
-        return new SeoMeta(title, description, keywords, heading, canonicalUrl, jsonLd);
+        return new SeoMeta(title, description, keywords, heading, canonicalUrl, jsonLd, listingCount);
     }
 
     private String normalizeCity(String cityParam) {
         if (cityParam == null || cityParam.isBlank()) return null;
-        String candidate = CityUtil.toTitle(cityParam.trim());
+        // Path segments come slugged from the sitemap ("Navi-Mumbai")
+        String candidate = CityUtil.toTitle(cityParam.replace('-', ' ').trim());
         return CityUtil.isKnownCity(candidate) ? candidate : candidate; // Allow any title-cased city; expand list in util
     }
 
+    // Accepts slugs such as "tata-ace" or "tow-truck" as well as plain names
+    private String normalizeType(String typeParam) {
+        if (typeParam == null || typeParam.isBlank()) return null;
+        String canonical = VehicleTypeNormalizer.canonical(typeParam);
+        if (canonical == null) canonical = VehicleTypeNormalizer.canonical(typeParam.replace('-', ' '));
+        return canonical != null ? canonical : VehicleUtil.toTitle(typeParam);
+    }
+
     private String normalizeIntent(String intentParam, String normalizedType) {
         if (intentParam != null && !intentParam.isBlank()) return intentParam.toLowerCase(Locale.ROOT);
         if (normalizedType != null && !normalizedType.isBlank()) return "find";
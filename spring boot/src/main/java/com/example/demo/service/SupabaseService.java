@@ -1,12 +1,23 @@
 package com.example.demo.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,6 +36,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -81,8 +93,30 @@ public class SupabaseService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ImageProcessor imageProcessor;
+
+    @Autowired
+    private ImageVariantRegistry imageVariantRegistry;
+
+    @Value("${app.images.upload.concurrency:4}")
+    private int uploadConcurrency;
+
+    @Value("${app.images.upload.deadline-seconds:30}")
+    private long uploadDeadlineSeconds;
+
     private final OkHttpClient client = new OkHttpClient();
+    // Same connection pool; a download as a whole may not hold a worker longer than this
+    private final OkHttpClient downloadClient = client.newBuilder().callTimeout(30, TimeUnit.SECONDS).build();
     private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Storage calls spend their time waiting on the network, so each gets a virtual thread
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * An image of a registration upload that is in storage.
+     */
+    private record StoredImage(String path, String url, ImageProcessor.Encoded processed) {}
     
     @PostConstruct
     public void init() {
@@ -121,6 +155,11 @@ public class SupabaseService {
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
     private void ensureBucketPublic(String bucket) throws IOException {
         String json = "{\"public\": true}";
         RequestBody body = RequestBody.create(MediaType.parse("application/json"), json);
@@ -157,19 +196,77 @@ public class SupabaseService {
         }
         String targetBucket = (postsBucketName == null || postsBucketName.isBlank()) ? bucketName : postsBucketName;
         String original = image.getOriginalFilename() != null ? image.getOriginalFilename() : "image.jpg";
-        String filename = "post_" + UUID.randomUUID() + "_" + original.replaceAll("[^A-Za-z0-9._-]", "_");
-        RequestBody fileBody = RequestBody.create(MediaType.parse(image.getContentType()), image.getBytes());
+        ImageProcessor.Encoded processed = imageProcessor.prepare(image.getBytes());
+        String filename = "post_" + UUID.randomUUID() + "_" + storedFilename(original, processed);
+        putObject(targetBucket, filename, processed.bytes(), processed.contentType(), "Post image");
+        String publicUrl = supabaseUrl + "/storage/v1/object/public/" + targetBucket + "/" + filename;
+        createVariantsAsync(targetBucket, filename, publicUrl, processed);
+        return publicUrl;
+    }
+
+    /**
+     * PUT one object into storage.
+     */
+    private void putObject(String bucket, String path, byte[] bytes, String contentType, String label) throws IOException {
+        RequestBody fileBody = RequestBody.create(MediaType.parse(contentType != null ? contentType : "application/octet-stream"), bytes);
         Request request = new Request.Builder()
-                .url(supabaseUrl + "/storage/v1/object/" + targetBucket + "/" + filename)
+                .url(supabaseUrl + "/storage/v1/object/" + bucket + "/" + path)
                 .addHeader("apikey", supabaseKey)
                 .addHeader("Authorization", "Bearer " + supabaseKey)
                 .put(fileBody)
                 .build();
         try (Response response = client.newCall(request).execute()) {
             if (!response.isSuccessful()) {
-                throw new IOException("Post image upload failed: " + response.code() + " " + response.message());
+                throw new IOException(label + " upload failed: " + response.code() + " " + response.message());
+            }
+        }
+    }
+
+    /**
+     * Storage-safe file name for an upload, with the extension of the format it is stored in.
+     */
+    private static String storedFilename(String originalFilename, ImageProcessor.Encoded processed) {
+        String name = (originalFilename == null || originalFilename.isBlank() ? "image.jpg" : originalFilename)
+                .replaceAll("[^A-Za-z0-9._-]", "_");
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + "." + processed.extension();
+    }
+
+    /**
+     * Record the placeholder of a just-stored image, then upload card and thumbnail copies next to
+     * {@code path} ("name_800.jpg", "name_320.jpg") on the image pool and record them. Does nothing
+     * for uploads that were only stripped of metadata.
+     */
+    private void createVariantsAsync(String bucket, String path, String publicUrl, ImageProcessor.Encoded prepared) {
+        if (!prepared.reencoded()) return;
+        if (prepared.placeholder() != null) {
+            try {
+                imageVariantRegistry.recordPlaceholder(publicUrl, prepared.placeholder());
+            } catch (Exception e) {
+                // The backfill job computes it again later
+                System.err.println("Could not record placeholder of " + publicUrl + ": " + e.getMessage());
+            }
+        }
+        int dot = path.lastIndexOf('.');
+        String base = dot > 0 ? path.substring(0, dot) : path;
+        boolean queued = imageProcessor.submit(() -> {
+            try {
+                ImageProcessor.Encoded card = imageProcessor.variant(prepared.bytes(), ImageProcessor.CARD_EDGE);
+                ImageProcessor.Encoded thumb = imageProcessor.variant(prepared.bytes(), ImageProcessor.THUMB_EDGE);
+                if (card == null || thumb == null) return;
+                String cardPath = base + "_" + ImageProcessor.CARD_EDGE + "." + card.extension();
+                String thumbPath = base + "_" + ImageProcessor.THUMB_EDGE + "." + thumb.extension();
+                putObject(bucket, cardPath, card.bytes(), card.contentType(), "Card variant");
+                putObject(bucket, thumbPath, thumb.bytes(), thumb.contentType(), "Thumbnail variant");
+                String publicBase = supabaseUrl + "/storage/v1/object/public/" + bucket + "/";
+                imageVariantRegistry.record(publicUrl, publicBase + cardPath, publicBase + thumbPath,
+                        prepared.width(), prepared.height());
+            } catch (IOException e) {
+                System.err.println("Could not create variants of " + publicUrl + ": " + e.getMessage());
             }
-            return supabaseUrl + "/storage/v1/object/public/" + targetBucket + "/" + filename;
+        });
+        if (!queued) {
+            System.err.println("Image queue full, serving " + publicUrl + " without variants");
         }
     }
 
@@ -191,6 +288,60 @@ public class SupabaseService {
         }
     }
     
+    /**
+     * Delete many post images by public URL with the storage bulk-remove API,
+     * one request per bucket and batch. Returns how many objects were removed;
+     * a failed batch is logged and skipped so the rest still go out.
+     */
+    public int deletePostImagesByUrl(List<String> imageUrls, int batchSize) {
+        String marker = "/storage/v1/object/public/";
+        List<String> allUrls = new ArrayList<>(imageUrls);
+        // Card/thumbnail copies go with their originals
+        allUrls.addAll(imageVariantRegistry.forget(imageUrls));
+        Map<String, List<String>> pathsByBucket = new HashMap<>();
+        for (String url : allUrls) {
+            if (url == null || url.isBlank()) continue;
+            int at = url.indexOf(marker);
+            if (at < 0) continue;
+            String rest = url.substring(at + marker.length());
+            int slash = rest.indexOf('/');
+            if (slash <= 0) continue;
+            pathsByBucket.computeIfAbsent(rest.substring(0, slash), b -> new ArrayList<>())
+                    .add(rest.substring(slash + 1));
+        }
+
+        int removed = 0;
+        for (Map.Entry<String, List<String>> entry : pathsByBucket.entrySet()) {
+            List<String> paths = entry.getValue();
+            for (int from = 0; from < paths.size(); from += batchSize) {
+                List<String> batch = paths.subList(from, Math.min(paths.size(), from + batchSize));
+                try {
+                    String json = objectMapper.writeValueAsString(Map.of("prefixes", batch));
+                    RequestBody body = RequestBody.create(MediaType.parse("application/json"), json);
+                    Request request = new Request.Builder()
+                            .url(supabaseUrl + "/storage/v1/object/" + entry.getKey())
+                            .addHeader("apikey", supabaseKey)
+                            .addHeader("Authorization", "Bearer " + supabaseKey)
+                            .delete(body)
+                            .build();
+                    try (Response response = client.newCall(request).execute()) {
+                        if (!response.isSuccessful()) {
+                            System.err.println("Bulk delete of " + batch.size() + " post images in " + entry.getKey()
+                                    + " failed: " + response.code() + " " + response.message());
+                            continue;
+                        }
+                        // The API answers with the objects it actually removed
+                        JsonNode deleted = objectMapper.readTree(response.body().string());
+                        removed += deleted.isArray() ? deleted.size() : batch.size();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Bulk delete of post images in " + entry.getKey() + " failed: " + e.getMessage());
+                }
+            }
+        }
+        return removed;
+    }
+
     /**
      * Retry an operation with exponential backoff
      * 
@@ -326,10 +477,13 @@ public class SupabaseService {
             throw new IOException("Empty image file");
         }
         
+        // Profile photos are only shown small: cap them at card size, no variants
+        ImageProcessor.Encoded processed = imageProcessor.prepare(photo.getBytes(), ImageProcessor.CARD_EDGE);
+
         // Create a unique filename for the profile photo
-        String filename = "profile_" + UUID.randomUUID() + "_" + photo.getOriginalFilename();
+        String filename = "profile_" + UUID.randomUUID() + "_" + storedFilename(photo.getOriginalFilename(), processed);
         
-        RequestBody fileBody = RequestBody.create(MediaType.parse(photo.getContentType()), photo.getBytes());
+        RequestBody fileBody = RequestBody.create(MediaType.parse(processed.contentType()), processed.bytes());
 
         // Add logging to diagnose issues
         System.out.println("Attempting to upload profile photo to Supabase. Bucket: " + profileBucketName);
@@ -952,6 +1106,11 @@ public class SupabaseService {
     /**
      * Upload images to Supabase storage inside a folder named after the registration ID
      * 
+     * The folder marker and the images are stored in parallel, at most uploadConcurrency at a
+     * time, and all of them must finish before uploadDeadlineSeconds. If any fails, the rest are
+     * cancelled and whatever did reach storage is deleted again. URLs come back in the order the
+     * images were given.
+     * 
      * @param images List of images to upload
      * @param registrationId Registration ID to use as folder name
      * @return Map containing the folderPath and imageUrls
@@ -969,41 +1128,68 @@ public class SupabaseService {
         // Create folder path using registration ID
         String folderPath = registrationId.toString();
         
-        // Ensure the folder exists
-        ensureFolderExists(folderPath);
-        
-        // Keep track of uploaded image URLs
-        List<String> uploadedImageUrls = new ArrayList<>();
-        
-        // Upload each image to the specified folder
+        // Read the files here; multipart temp files go away once the request returns
+        List<MultipartFile> files = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
         for (MultipartFile image : images) {
             if (image.isEmpty()) {
                 continue;
             }
-            
-            // Create a unique filename for the image within the folder
-            String filename = UUID.randomUUID() + "_" + image.getOriginalFilename();
-            String fullPath = folderPath + "/" + filename;
-            
-            RequestBody fileBody = RequestBody.create(MediaType.parse(image.getContentType()), image.getBytes());
-            
-            Request request = new Request.Builder()
-                    .url(supabaseUrl + "/storage/v1/object/" + bucketName + "/" + fullPath)
-                    .addHeader("apikey", supabaseKey)
-                    .addHeader("Authorization", "Bearer " + supabaseKey)
-                    .put(fileBody)
-                    .build();
-    
-            try (Response response = client.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Image upload failed: " + response.message());
-                }
-                
+            files.add(image);
+            contents.add(image.getBytes());
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(uploadDeadlineSeconds);
+        Semaphore permits = new Semaphore(Math.max(1, uploadConcurrency));
+        CountDownLatch finished = new CountDownLatch(files.size() + 1);
+        // Paths are only known once an image is processed; written before its PUT starts
+        AtomicReferenceArray<String> attempted = new AtomicReferenceArray<>(files.size());
+        
+        Future<StoredImage> folder = submitUpload(permits, finished, () -> {
+            ensureFolderExists(folderPath);
+            return null;
+        });
+        List<Future<StoredImage>> uploads = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            int index = i;
+            MultipartFile image = files.get(i);
+            byte[] bytes = contents.get(i);
+            uploads.add(submitUpload(permits, finished, () -> {
+                // Web-sized, upright and without EXIF; at least without EXIF if it could not be decoded
+                ImageProcessor.Encoded processed = imageProcessor.prepare(bytes);
+
+                // Create a unique filename for the image within the folder
+                String filename = UUID.randomUUID() + "_" + storedFilename(image.getOriginalFilename(), processed);
+                String fullPath = folderPath + "/" + filename;
+                attempted.set(index, fullPath);
+
+                putObject(bucketName, fullPath, processed.bytes(), processed.contentType(), "Image");
+
                 // Generate direct public URL for the image
                 String imageUrl = supabaseUrl + "/storage/v1/object/public/" + bucketName + "/" + fullPath;
                 System.out.println("Uploaded image URL: " + imageUrl);
-                uploadedImageUrls.add(imageUrl);
+                return new StoredImage(fullPath, imageUrl, processed);
+            }));
+        }
+        
+        // Keep track of uploaded images, in the order they were given
+        List<StoredImage> stored = new ArrayList<>();
+        try {
+            awaitUpload(folder, deadline);
+            for (Future<StoredImage> upload : uploads) {
+                stored.add(awaitUpload(upload, deadline));
             }
+        } catch (IOException e) {
+            folder.cancel(true);
+            uploads.forEach(upload -> upload.cancel(true));
+            discardUploads(attempted, finished, registrationId);
+            throw e;
+        }
+        
+        List<String> uploadedImageUrls = new ArrayList<>();
+        for (StoredImage image : stored) {
+            uploadedImageUrls.add(image.url());
+            createVariantsAsync(bucketName, image.path(), image.url(), image.processed());
         }
         
         // Create or update the registration image folder record
@@ -1028,6 +1214,120 @@ public class SupabaseService {
         return result;
     }
 
+    /**
+     * Run one storage call of an upload on a virtual thread, holding one of the request's permits.
+     */
+    private Future<StoredImage> submitUpload(Semaphore permits, CountDownLatch finished, Callable<StoredImage> task) {
+        return uploadExecutor.submit(() -> {
+            try {
+                permits.acquire();
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            } finally {
+                finished.countDown();
+            }
+        });
+    }
+
+    private static StoredImage awaitUpload(Future<StoredImage> upload, long deadline) throws IOException {
+        try {
+            return upload.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Image upload timed out");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException("Image upload failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Image upload interrupted");
+        }
+    }
+
+    /**
+     * Delete the images of a failed upload once its cancelled calls have stopped, so a PUT that
+     * was already on the wire cannot land after the delete. Runs in the background; the caller
+     * reports the failure right away.
+     */
+    private void discardUploads(AtomicReferenceArray<String> attempted, CountDownLatch finished, Long registrationId) {
+        uploadExecutor.execute(() -> {
+            try {
+                if (!finished.await(uploadDeadlineSeconds, TimeUnit.SECONDS)) {
+                    System.err.println("Upload calls for registration " + registrationId + " still running, deleting anyway");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < attempted.length(); i++) {
+                String path = attempted.get(i);
+                if (path != null) {
+                    urls.add(supabaseUrl + "/storage/v1/object/public/" + bucketName + "/" + path);
+                }
+            }
+            if (urls.isEmpty()) return;
+            // Objects that never made it are simply not in the bulk-remove answer
+            int removed = deletePostImagesByUrl(urls, urls.size());
+            System.out.println("Discarded " + removed + " of " + urls.size() + " images after failed upload for registration " + registrationId);
+        });
+    }
+
+    /**
+     * Read back a vehicle or post image this service stored, given its public URL. The object is
+     * fetched by bucket and key from our own storage API, so a URL saved by a client can never
+     * make the server call another host. Bodies over {@code maxBytes} are refused.
+     */
+    public byte[] readStoredImage(String publicUrl, int maxBytes) throws IOException {
+        String key = storageKey(publicUrl);
+        if (key == null) {
+            throw new IOException("not an image in our storage: " + publicUrl);
+        }
+        Request request = new Request.Builder()
+                .url(supabaseUrl + "/storage/v1/object/" + key)
+                .addHeader("apikey", supabaseKey)
+                .addHeader("Authorization", "Bearer " + supabaseKey)
+                .get()
+                .build();
+        try (Response response = downloadClient.newCall(request).execute()) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("download failed: " + response.code() + " " + response.message());
+            }
+            if (response.body().contentLength() > maxBytes) {
+                throw new IOException("image is " + response.body().contentLength() + " bytes, limit " + maxBytes);
+            }
+            // Content-Length may be missing or wrong; never buffer more than the limit
+            try (InputStream in = response.body().byteStream()) {
+                byte[] bytes = in.readNBytes(maxBytes + 1);
+                if (bytes.length > maxBytes) {
+                    throw new IOException("image is over the " + maxBytes + " byte limit");
+                }
+                return bytes;
+            }
+        }
+    }
+
+    /**
+     * "bucket/path" of a public URL in the vehicle or post bucket, or null for anything else:
+     * another host or bucket, query strings, dot segments or escapes that could climb out of it.
+     */
+    String storageKey(String publicUrl) {
+        String prefix = supabaseUrl + "/storage/v1/object/public/";
+        if (publicUrl == null || !publicUrl.startsWith(prefix)) return null;
+        String key = publicUrl.substring(prefix.length());
+        if (key.indexOf('?') >= 0 || key.indexOf('#') >= 0 || key.indexOf('%') >= 0 || key.indexOf('\\') >= 0) {
+            return null;
+        }
+        String[] segments = key.split("/", -1);
+        if (segments.length < 2) return null;
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) return null;
+        }
+        String bucket = segments[0];
+        return bucket.equals(bucketName) || bucket.equals(postsBucketName) ? key : null;
+    }
+
     /**
      * Get the full public URL for an image in the storage bucket
      * 
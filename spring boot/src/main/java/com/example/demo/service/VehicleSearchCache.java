@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded LRU/TTL cache of serialized /api/vehicles/search responses.
+ *
+ * Entries are keyed on the normalized vehicle type and pincode prefix (plus the page
+ * being asked for) and hold the exact JSON bytes sent to the client, with their ETag.
+ * The search index tells us about every listing change, and only entries whose
+ * type/prefix could contain the old or new listing are dropped.
+ */
+@Service
+public class VehicleSearchCache implements VehicleSearchIndex.ChangeListener {
+
+    /**
+     * Normalized search parameters. An empty type matches every type and an empty
+     * prefix matches every pincode.
+     */
+    public record Key(String vehicleType, String pincodePrefix, String cursor, int limit) {
+        public static Key of(String vehicleType, String pincode, String cursor, int limit) {
+            return new Key(normalize(vehicleType), normalize(pincode), normalize(cursor), limit);
+        }
+
+        boolean covers(VehicleSearchIndex.Listing l) {
+            return (vehicleType.isEmpty() || vehicleType.equals(l.vehicleType()))
+                && l.pincode().startsWith(pincodePrefix);
+        }
+    }
+
+    /**
+     * Serialized response body and the strong ETag it was sent with.
+     */
+    public record Entry(byte[] body, String etag) {}
+
+    private final VehicleSearchIndex searchIndex;
+    private final Cache<Key, Entry> cache;
+
+    // Bumped on every invalidation so a response computed before a change is never stored after it
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public VehicleSearchCache(VehicleSearchIndex searchIndex,
+                              @Value("${app.search-cache.max-entries:2000}") long maxEntries,
+                              @Value("${app.search-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.searchIndex = searchIndex;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    // Registered once constructed, so the index never calls back into a half-built cache
+    @PostConstruct
+    public void init() {
+        searchIndex.addChangeListener(this);
+    }
+
+    public Entry getIfPresent(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Read before computing a response; pass to {@link #put} so the result is only
+     * stored if no listing changed in the meantime.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(Key key, Entry entry, long generationAtRead) {
+        if (generation.get() != generationAtRead) return;
+        cache.put(key, entry);
+        // An invalidation may have slipped in between the check and the put
+        if (generation.get() != generationAtRead) cache.invalidate(key);
+    }
+
+    @Override
+    public void listingChanged(VehicleSearchIndex.Listing before, VehicleSearchIndex.Listing after) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> {
+            boolean stale = (before != null && key.covers(before)) || (after != null && key.covers(after));
+            if (stale) invalidations.incrementAndGet();
+            return stale;
+        });
+    }
+
+    @Override
+    public void reloaded() {
+        generation.incrementAndGet();
+        invalidations.addAndGet(cache.size());
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.size());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.get());
+        return result;
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.trim();
+    }
+}
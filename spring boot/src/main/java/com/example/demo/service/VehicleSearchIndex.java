@@ -0,0 +1,911 @@
+package com.example.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.ImageUrlListConverter;
+import com.example.demo.model.Registration;
+import com.example.demo.repository.projection.VehicleListingView;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory search index over vehicle registrations.
+ *
+ * Holds one compact {@link Listing} per registration, a pincode-prefix trie and
+ * per-vehicle-type posting lists so that /api/vehicles/search can be answered
+ * without a table scan. Controllers push changes through {@link #upsert} and
+ * {@link #remove}; a periodic full reload reconciles writes made with raw SQL.
+ *
+ * Pincodes that have a known location in {@link PincodeGeoTable} are also bucketed
+ * into a coarse lat/lon grid, which backs the "near me" radius search.
+ */
+@Service
+public class VehicleSearchIndex {
+
+    private static final String LOAD_SQL =
+        "SELECT id, user_id, full_name, vehicle_type, contact_number, whatsapp_number, " +
+        "alternate_contact_number, vehicle_plate_number, " +
+        "state, city, pincode, registration_date, membership, call_tracking, " +
+        "highlight1, highlight2, highlight3, highlight4, highlight5, vehicle_image_urls_json " +
+        "FROM registration";
+
+    /**
+     * Immutable projection of a registration with only the fields search renders.
+     */
+    public record Listing(
+            Long id,
+            Long userId,
+            String fullName,
+            String vehicleType,
+            String contactNumber,
+            String whatsappNumber,
+            String alternateContactNumber,
+            String vehiclePlateNumber,
+            String state,
+            String city,
+            String pincode,
+            LocalDate registrationDate,
+            String membership,
+            int callTracking,
+            String highlight1,
+            String highlight2,
+            String highlight3,
+            String highlight4,
+            String highlight5,
+            List<String> imageUrls
+    ) {
+        public static Listing from(Registration reg) {
+            return new Listing(reg.getId(), reg.getUserId(), reg.getFullName(), reg.getVehicleType(),
+                    reg.getContactNumber(), reg.getWhatsappNumber(), reg.getAlternateContactNumber(),
+                    reg.getVehiclePlateNumber(), reg.getState(), reg.getCity(),
+                    trimToEmpty(reg.getPincode()), reg.getRegistrationDate(), reg.getMembership(),
+                    reg.getCallTracking() != null ? reg.getCallTracking() : 0,
+                    reg.getHighlight1(), reg.getHighlight2(), reg.getHighlight3(), reg.getHighlight4(),
+                    reg.getHighlight5(), List.copyOf(reg.getVehicleImageUrls()));
+        }
+
+        public static Listing from(VehicleListingView view) {
+            return new Listing(view.getId(), view.getUserId(), view.getFullName(), view.getVehicleType(),
+                    view.getContactNumber(), view.getWhatsappNumber(), view.getAlternateContactNumber(),
+                    view.getVehiclePlateNumber(), view.getState(), view.getCity(),
+                    trimToEmpty(view.getPincode()), view.getRegistrationDate(), view.getMembership(),
+                    view.getCallTracking() != null ? view.getCallTracking() : 0,
+                    view.getHighlight1(), view.getHighlight2(), view.getHighlight3(), view.getHighlight4(),
+                    view.getHighlight5(), ImageUrlListConverter.clean(view.getVehicleImageUrls()));
+        }
+
+        Listing withCallTracking(int count) {
+            return new Listing(id, userId, fullName, vehicleType, contactNumber, whatsappNumber,
+                    alternateContactNumber, vehiclePlateNumber, state, city, pincode, registrationDate,
+                    membership, count, highlight1, highlight2, highlight3, highlight4, highlight5, imageUrls);
+        }
+    }
+
+    /**
+     * One page of results plus the key to resume after, or null on the last page.
+     * Radius searches also carry the distance of each listing from the origin.
+     * {@code version} changes whenever anything the page renders changes.
+     */
+    public record Page(List<Listing> listings, double[] distancesKm, Long nextKey, long version) {}
+
+    private static final Page EMPTY_PAGE = new Page(List.of(), null, null, 0L);
+
+    /**
+     * Content version of a listing: the same listing always gets the same value, so
+     * versions survive reloads and only move when a field actually changes.
+     */
+    public static long fingerprint(Listing l) {
+        return Hashing.murmur3_128().hashString(l.toString(), StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Version of a listing as rendered: its fields plus the card copies and placeholders of
+     * its images, which are produced after the listing itself is saved.
+     */
+    static long contentVersion(Listing l, ImageVariantRegistry images) {
+        if (images == null || l.imageUrls().isEmpty()) return fingerprint(l);
+        return Hashing.murmur3_128().newHasher()
+                .putLong(fingerprint(l))
+                .putLong(images.stateOf(l.imageUrls()))
+                .hash().asLong();
+    }
+
+    private static long pageVersion(Snapshot s, List<Listing> listings, double[] distancesKm, Long nextKey) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (int i = 0; i < listings.size(); i++) {
+            Long version = s.versions.get(listings.get(i).id());
+            hasher.putLong(version != null ? version : fingerprint(listings.get(i)));
+            if (distancesKm != null) hasher.putDouble(distancesKm[i]);
+        }
+        hasher.putLong(nextKey != null ? nextKey : -1L);
+        return hasher.hash().asLong();
+    }
+
+    // Sort keys pack (score, id) into a long so posting lists stay plain TreeSet<Long>:
+    // the low 40 bits hold the registration id, the 12 bits above hold the inverted
+    // relevance score, so ascending key order is best-first with id as the tie-break.
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int SCORE_BITS = 12;
+    private static final int MAX_SCORE = (1 << SCORE_BITS) - 1;
+    private static final int SORT_KEY_BITS = ID_BITS + SCORE_BITS;
+    private static final long SORT_KEY_MASK = (1L << SORT_KEY_BITS) - 1;
+
+    // Prefix searches put a match tier above the sort key: exact pincode matches first
+    private static final int TIER_SHIFT = 60;
+
+    // Score components; premium outweighs trust and recency combined
+    private static final int PREMIUM_SCORE = 2048;
+    private static final int MAX_TRUST_SCORE = 1023;
+    private static final int MAX_RECENCY_SCORE = 1023;
+    private static final int RECENCY_WINDOW_DAYS = 365;
+
+    /**
+     * Relevance of a listing independent of the query, 0..4095, higher is better.
+     */
+    public static int score(Listing l, LocalDate today) {
+        int score = "Premium".equalsIgnoreCase(l.membership()) ? PREMIUM_SCORE : 0;
+        // log scale: the first few calls matter far more than the hundredth
+        score += (int) Math.min(MAX_TRUST_SCORE,
+                Math.round(Math.log1p(Math.max(l.callTracking(), 0)) / Math.log(2) * 100));
+        if (l.registrationDate() != null) {
+            long age = Math.max(0, today.toEpochDay() - l.registrationDate().toEpochDay());
+            if (age < RECENCY_WINDOW_DAYS) {
+                score += (int) (MAX_RECENCY_SCORE * (RECENCY_WINDOW_DAYS - age) / RECENCY_WINDOW_DAYS);
+            }
+        }
+        return score;
+    }
+
+    public static long sortKey(Listing l, LocalDate today) {
+        return ((long) (MAX_SCORE - score(l, today)) << ID_BITS) | (l.id() & ID_MASK);
+    }
+
+    private static long idOf(long sortKey) {
+        return sortKey & ID_MASK;
+    }
+
+    // Radius search keys put the distance in 100 m steps above the sort key, so ordering
+    // is by distance and then by score, and the cursor is still one long.
+    public static final double MAX_RADIUS_KM = 100.0;
+
+    // Grid cells are 0.1 degrees (about 11 km) on a side
+    private static final double CELL_DEG = 0.1;
+    private static final double KM_PER_DEG_LAT = 111.32;
+
+    private static long cellKey(int latIdx, int lonIdx) {
+        return ((long) latIdx << 32) | (lonIdx & 0xffffffffL);
+    }
+
+    private static int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEG);
+    }
+
+    /**
+     * Opaque cursor for the listing at {@code sortKey}; pass back to resume after it.
+     */
+    public static String encodeCursor(long sortKey) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(sortKey, 36).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII), 36);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Notified after each indexed change, outside the index lock. {@code before} is null
+     * for a new listing and {@code after} is null for a removal.
+     */
+    public interface ChangeListener {
+        void listingChanged(Listing before, Listing after);
+
+        /** The whole index was rebuilt from the table; anything derived from it is suspect. */
+        default void reloaded() {}
+    }
+
+    /**
+     * Listing counts per vehicle type, city and membership tier for one pincode prefix,
+     * each ordered by descending count.
+     */
+    public record Facets(int total, Map<String, Integer> vehicleTypes, Map<String, Integer> cities,
+                         Map<String, Integer> memberships) {}
+
+    // Running counters kept on every trie node, adjusted as listings come and go
+    private static final class FacetCounts {
+        final Map<String, Integer> types = new HashMap<>(4);
+        final Map<String, Integer> cities = new HashMap<>(4);
+        final Map<String, Integer> memberships = new HashMap<>(2);
+
+        void add(Listing l) {
+            adjust(types, l.vehicleType(), 1);
+            adjust(cities, trimToNull(l.city()), 1);
+            adjust(memberships, membershipTier(l), 1);
+        }
+
+        void remove(Listing l) {
+            adjust(types, l.vehicleType(), -1);
+            adjust(cities, trimToNull(l.city()), -1);
+            adjust(memberships, membershipTier(l), -1);
+        }
+
+        private static void adjust(Map<String, Integer> counts, String key, int delta) {
+            if (key == null) return;
+            counts.merge(key, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+
+        Facets toFacets(int total) {
+            return new Facets(total, byCount(types), byCount(cities), byCount(memberships));
+        }
+
+        private static Map<String, Integer> byCount(Map<String, Integer> counts) {
+            Map<String, Integer> sorted = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+            return sorted;
+        }
+    }
+
+    private static String membershipTier(Listing l) {
+        return l.membership() == null || l.membership().isBlank() ? "Standard" : l.membership();
+    }
+
+    private static final class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>(4);
+        // Sort keys of every listing whose pincode starts with the path to this node
+        final NavigableSet<Long> keys = new TreeSet<>();
+        // Sort keys of listings whose pincode is exactly the path to this node, if any
+        NavigableSet<Long> exact;
+        final FacetCounts facets = new FacetCounts();
+    }
+
+    private static final class Snapshot {
+        final Map<Long, Listing> byId = new HashMap<>();
+        final Map<Long, Long> versions = new HashMap<>();
+        // Listings showing each image, so a new card copy or placeholder re-versions them
+        final Map<String, Set<Long>> byImageUrl = new HashMap<>();
+        // Sort key each listing was filed under; scores depend on the date, so never recompute
+        final Map<Long, Long> sortKeys = new HashMap<>();
+        final NavigableSet<Long> allKeys = new TreeSet<>();
+        final Map<String, NavigableSet<Long>> byType = new HashMap<>();
+        final Map<Long, NavigableSet<Long>> byUser = new HashMap<>();
+        final TrieNode pincodeRoot = new TrieNode();
+
+        // Exact pincodes per grid cell; a pincode is in the grid while any listing uses it
+        final PincodeGeoTable geo;
+        final Map<String, Integer> pincodeCounts = new HashMap<>();
+        final Map<Long, Set<String>> cells = new HashMap<>();
+
+        final ImageVariantRegistry images;
+
+        Snapshot(PincodeGeoTable geo, ImageVariantRegistry images) {
+            this.geo = geo;
+            this.images = images;
+        }
+
+        void add(Listing l) {
+            long key = sortKey(l, LocalDate.now());
+            sortKeys.put(l.id(), key);
+            byId.put(l.id(), l);
+            versions.put(l.id(), contentVersion(l, images));
+            for (String url : l.imageUrls()) {
+                byImageUrl.computeIfAbsent(url, k -> new HashSet<>(2)).add(l.id());
+            }
+            allKeys.add(key);
+            if (l.vehicleType() != null) {
+                byType.computeIfAbsent(l.vehicleType(), k -> new TreeSet<>()).add(key);
+            }
+            if (l.userId() != null) {
+                byUser.computeIfAbsent(l.userId(), k -> new TreeSet<>()).add(key);
+            }
+            TrieNode node = pincodeRoot;
+            node.keys.add(key);
+            node.facets.add(l);
+            String pin = l.pincode();
+            for (int i = 0; i < pin.length(); i++) {
+                node = node.children.computeIfAbsent(pin.charAt(i), k -> new TrieNode());
+                node.keys.add(key);
+                node.facets.add(l);
+            }
+            if (!pin.isEmpty()) {
+                if (node.exact == null) node.exact = new TreeSet<>();
+                node.exact.add(key);
+            }
+            if (geo != null && !pin.isEmpty() && pincodeCounts.merge(pin, 1, Integer::sum) == 1) {
+                int idx = geo.indexOf(pin);
+                if (idx >= 0) {
+                    cells.computeIfAbsent(cellOf(idx), k -> new HashSet<>()).add(pin);
+                }
+            }
+        }
+
+        private long cellOf(int geoIndex) {
+            return cellKey(cellIndex(geo.latitudeAt(geoIndex)), cellIndex(geo.longitudeAt(geoIndex)));
+        }
+
+        void remove(Long id) {
+            Listing old = byId.remove(id);
+            if (old == null) return;
+            versions.remove(id);
+            for (String url : old.imageUrls()) {
+                removeFrom(byImageUrl, url, id);
+            }
+            long key = sortKeys.remove(id);
+            allKeys.remove(key);
+            removeFrom(byType, old.vehicleType(), key);
+            removeFrom(byUser, old.userId(), key);
+            TrieNode node = pincodeRoot;
+            node.keys.remove(key);
+            node.facets.remove(old);
+            String pin = old.pincode();
+            for (int i = 0; i < pin.length(); i++) {
+                TrieNode child = node.children.get(pin.charAt(i));
+                if (child == null) break;
+                child.keys.remove(key);
+                child.facets.remove(old);
+                if (i == pin.length() - 1 && child.exact != null) {
+                    child.exact.remove(key);
+                    if (child.exact.isEmpty()) child.exact = null;
+                }
+                if (child.keys.isEmpty()) {
+                    node.children.remove(pin.charAt(i));
+                    break;
+                }
+                node = child;
+            }
+            if (geo != null && !pin.isEmpty()) {
+                Integer count = pincodeCounts.get(pin);
+                if (count == null) return;
+                if (count > 1) {
+                    pincodeCounts.put(pin, count - 1);
+                    return;
+                }
+                pincodeCounts.remove(pin);
+                int idx = geo.indexOf(pin);
+                if (idx >= 0) {
+                    removeFrom(cells, cellOf(idx), pin);
+                }
+            }
+        }
+
+        private static <K, V> void removeFrom(Map<K, ? extends Set<V>> postings, K k, V key) {
+            if (k == null) return;
+            Set<V> keys = postings.get(k);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) postings.remove(k);
+            }
+        }
+
+        TrieNode find(String prefix) {
+            TrieNode node = pincodeRoot;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PincodeGeoTable geoTable;
+    private final ImageVariantRegistry imageVariantRegistry;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Snapshot snapshot;
+    private volatile boolean ready = false;
+
+    // Changes that arrive while a reload is reading the table, replayed after the swap
+    private List<Runnable> pendingDuringReload = null;
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public VehicleSearchIndex(JdbcTemplate jdbcTemplate, PincodeGeoTable geoTable,
+                              ImageVariantRegistry imageVariantRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.geoTable = geoTable;
+        this.imageVariantRegistry = imageVariantRegistry;
+        this.snapshot = new Snapshot(geoTable, imageVariantRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        imageVariantRegistry.addChangeListener(this::imageChanged);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    // every 10 minutes, to pick up writes that bypass the controllers (raw SQL deletes etc.)
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot fresh = new Snapshot(geoTable, imageVariantRegistry);
+        try {
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                java.sql.Date regDate = rs.getDate("registration_date");
+                fresh.add(new Listing(
+                        rs.getLong("id"),
+                        rs.getObject("user_id", Long.class),
+                        rs.getString("full_name"),
+                        rs.getString("vehicle_type"),
+                        rs.getString("contact_number"),
+                        rs.getString("whatsapp_number"),
+                        rs.getString("alternate_contact_number"),
+                        rs.getString("vehicle_plate_number"),
+                        rs.getString("state"),
+                        rs.getString("city"),
+                        trimToEmpty(rs.getString("pincode")),
+                        regDate != null ? regDate.toLocalDate() : null,
+                        rs.getString("membership"),
+                        rs.getInt("call_tracking"),
+                        rs.getString("highlight1"),
+                        rs.getString("highlight2"),
+                        rs.getString("highlight3"),
+                        rs.getString("highlight4"),
+                        rs.getString("highlight5"),
+                        ImageUrlListConverter.parse(rs.getString("vehicle_image_urls_json"))));
+            });
+        } catch (Exception e) {
+            System.err.println("VehicleSearchIndex: reload failed, keeping previous snapshot: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            snapshot = fresh;
+            for (Runnable change : pendingDuringReload) {
+                change.run();
+            }
+            pendingDuringReload = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("VehicleSearchIndex: loaded " + fresh.byId.size() + " listings in "
+                + (System.currentTimeMillis() - start) + " ms");
+        for (ChangeListener listener : listeners) {
+            listener.reloaded();
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return snapshot.byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void upsert(Registration reg) {
+        if (reg == null || reg.getId() == null) return;
+        Listing listing = Listing.from(reg);
+        Listing[] before = new Listing[1];
+        apply(() -> {
+            before[0] = snapshot.byId.get(listing.id());
+            snapshot.remove(listing.id());
+            snapshot.add(listing);
+        });
+        notifyChanged(before[0], listing);
+    }
+
+    public void upsertAll(Collection<Registration> regs) {
+        if (regs == null) return;
+        for (Registration reg : regs) {
+            upsert(reg);
+        }
+    }
+
+    /**
+     * Re-ranks a listing after its trust counter was bumped with plain SQL.
+     */
+    public void updateCallTracking(Long id, int count) {
+        if (id == null) return;
+        Listing[] change = new Listing[2];
+        apply(() -> {
+            Listing old = snapshot.byId.get(id);
+            if (old == null) return;
+            Listing updated = old.withCallTracking(count);
+            snapshot.remove(id);
+            snapshot.add(updated);
+            change[0] = old;
+            change[1] = updated;
+        });
+        notifyChanged(change[0], change[1]);
+    }
+
+    /**
+     * Re-versions the listings showing {@code url} after it gained card copies or a placeholder,
+     * and tells the listeners, so cached pages and ETags pick up the new image fields.
+     */
+    private void imageChanged(String url) {
+        List<Listing> changed = new ArrayList<>(1);
+        apply(() -> {
+            Set<Long> ids = snapshot.byImageUrl.get(url);
+            if (ids == null) return;
+            for (Long id : List.copyOf(ids)) {
+                // Only the version moves; the listing keeps its place and sort key
+                Listing l = snapshot.byId.get(id);
+                snapshot.versions.put(id, contentVersion(l, imageVariantRegistry));
+                changed.add(l);
+            }
+        });
+        for (Listing l : changed) {
+            notifyChanged(l, l);
+        }
+    }
+
+    public void remove(Long id) {
+        if (id == null) return;
+        Listing[] before = new Listing[1];
+        apply(() -> {
+            Listing old = snapshot.byId.get(id);
+            if (old != null) before[0] = old;
+            snapshot.remove(id);
+        });
+        notifyChanged(before[0], null);
+    }
+
+    private void notifyChanged(Listing before, Listing after) {
+        if (before == null && after == null) return;
+        for (ChangeListener listener : listeners) {
+            listener.listingChanged(before, after);
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Current version of registration {@code id}, or null if it is not indexed.
+     */
+    public Long version(Long id) {
+        lock.readLock().lock();
+        try {
+            return snapshot.versions.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Version of {@code reg} as just read from the database, for tagging a 200 response. It is
+     * the value {@link #version} answers revalidations with, so if the index holds something
+     * else for this row (a write that bypassed it) the row is indexed again first.
+     */
+    public long versionOf(Registration reg) {
+        long version = contentVersion(Listing.from(reg), imageVariantRegistry);
+        Long indexed = version(reg.getId());
+        if (indexed != null && indexed != version) {
+            upsert(reg);
+        }
+        return version;
+    }
+
+    /**
+     * True if at least one indexed listing has exactly this vehicle type.
+     */
+    public boolean hasVehicleType(String vehicleType) {
+        lock.readLock().lock();
+        try {
+            return snapshot.byType.containsKey(vehicleType);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Listing get(Long id) {
+        lock.readLock().lock();
+        try {
+            return snapshot.byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Listings matching an exact vehicle type and a pincode prefix, starting after
+     * {@code afterKey}. Listings whose pincode equals the query come first, then the
+     * rest of the prefix; within each tier by descending score and then id, so pages
+     * are stable. Null or blank filters match everything.
+     */
+    public Page search(String vehicleType, String pincodePrefix, Long afterKey, int limit) {
+        String type = vehicleType == null || vehicleType.isEmpty() ? null : vehicleType;
+        String prefix = trimToEmpty(pincodePrefix);
+
+        lock.readLock().lock();
+        try {
+            Snapshot s = snapshot;
+            TrieNode node = s.find(prefix);
+            if (node == null) return EMPTY_PAGE;
+
+            NavigableSet<Long> candidates = node.keys;
+            boolean checkType = false;
+            boolean checkPincode = false;
+            if (type != null) {
+                NavigableSet<Long> typeKeys = s.byType.get(type);
+                if (typeKeys == null) return EMPTY_PAGE;
+                // Walk the smaller posting list and filter on the other dimension
+                if (typeKeys.size() < candidates.size()) {
+                    candidates = typeKeys;
+                    checkPincode = !prefix.isEmpty();
+                } else {
+                    checkType = true;
+                }
+            }
+
+            final boolean byType = checkType;
+            final boolean byPincode = checkPincode;
+            long tier = afterKey == null ? 0 : afterKey >>> TIER_SHIFT;
+            Long after = afterKey == null ? null : afterKey & SORT_KEY_MASK;
+            List<Listing> page = new ArrayList<>(Math.min(limit, 64));
+            boolean more = false;
+            long lastTier = 0;
+
+            // Tier 0: exact pincode matches, straight off the trie node
+            if (tier == 0 && !prefix.isEmpty() && node.exact != null) {
+                more = collectInto(s, node.exact, after, limit,
+                        l -> type == null || type.equals(l.vehicleType()), page);
+            }
+            // Tier 1: the rest of the prefix (or everything, without a prefix)
+            if (!more) {
+                int before = page.size();
+                more = collectInto(s, candidates, tier == 1 ? after : null, limit, l ->
+                        (!byType || type.equals(l.vehicleType()))
+                        && (!byPincode || l.pincode().startsWith(prefix))
+                        && (prefix.isEmpty() || l.pincode().length() != prefix.length()), page);
+                if (page.size() > before) lastTier = 1;
+            }
+
+            Long nextKey = more
+                    ? (lastTier << TIER_SHIFT) | s.sortKeys.get(page.get(page.size() - 1).id())
+                    : null;
+            return new Page(page, null, nextKey, pageVersion(s, page, null, nextKey));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts per vehicle type, city and membership tier for a pincode prefix, read
+     * straight off the counters on the prefix's trie node.
+     */
+    public Facets facets(String pincodePrefix) {
+        lock.readLock().lock();
+        try {
+            TrieNode node = snapshot.find(trimToEmpty(pincodePrefix));
+            if (node == null) return new FacetCounts().toFacets(0);
+            return node.facets.toFacets(node.keys.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same counts for listings loaded some other way (the pre-load database fallback).
+     */
+    public static Facets facetsOf(Collection<Listing> listings) {
+        FacetCounts counts = new FacetCounts();
+        for (Listing l : listings) {
+            counts.add(l);
+        }
+        return counts.toFacets(listings.size());
+    }
+
+    /**
+     * Number of listings of {@code vehicleType} at exactly {@code pincode}.
+     */
+    public int count(String vehicleType, String pincode) {
+        lock.readLock().lock();
+        try {
+            String pin = trimToEmpty(pincode);
+            TrieNode node = snapshot.find(pin);
+            if (node == null || node.exact == null || pin.isEmpty()) return 0;
+            int count = 0;
+            for (Long key : node.exact) {
+                Listing l = snapshot.byId.get(idOf(key));
+                if (l != null && l.vehicleType() != null && l.vehicleType().equals(vehicleType)) count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All listings owned by {@code userId}, in the same order as {@link #search}.
+     */
+    public Page searchByUser(Long userId, Long afterKey, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Long> keys = snapshot.byUser.get(userId);
+            if (keys == null) return EMPTY_PAGE;
+            return collect(snapshot, keys, afterKey, limit, l -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Listings within {@code radiusKm} of the pincode {@code near}, nearest first and then
+     * in the usual order, optionally restricted to one vehicle type. {@code afterKey} is a
+     * key from a previous radius page. Returns null when {@code near} has no known location,
+     * so the caller can fall back to a plain pincode search.
+     */
+    public Page searchNear(String vehicleType, String near, double radiusKm, Long afterKey, int limit) {
+        int origin = geoTable.indexOf(near);
+        if (origin < 0) return null;
+        String type = vehicleType == null || vehicleType.isEmpty() ? null : vehicleType;
+        double radius = Math.min(Math.max(radiusKm, 0), MAX_RADIUS_KM);
+        double lat = geoTable.latitudeAt(origin);
+        double lon = geoTable.longitudeAt(origin);
+
+        // Cells covering the bounding box of the radius
+        double latSpan = radius / KM_PER_DEG_LAT;
+        double lonSpan = radius / (KM_PER_DEG_LAT * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        int latLo = cellIndex(lat - latSpan), latHi = cellIndex(lat + latSpan);
+        int lonLo = cellIndex(lon - lonSpan), lonHi = cellIndex(lon + lonSpan);
+
+        lock.readLock().lock();
+        try {
+            Snapshot s = snapshot;
+            // The limit + 1 nearest keys past the cursor, largest on top so it is the one evicted
+            int wanted = limit + 1;
+            PriorityQueue<Long> nearest = new PriorityQueue<>(Math.min(wanted, 64), Collections.reverseOrder());
+            for (int i = latLo; i <= latHi; i++) {
+                for (int j = lonLo; j <= lonHi; j++) {
+                    Set<String> pins = s.cells.get(cellKey(i, j));
+                    if (pins == null) continue;
+                    for (String pin : pins) {
+                        int idx = geoTable.indexOf(pin);
+                        double km = PincodeGeoTable.distanceKm(lat, lon,
+                                geoTable.latitudeAt(idx), geoTable.longitudeAt(idx));
+                        if (km > radius) continue;
+                        TrieNode node = s.find(pin);
+                        if (node == null || node.exact == null) continue;
+                        long hectometres = Math.round(km * 10);
+                        for (Long key : node.exact) {
+                            long nearKey = (hectometres << SORT_KEY_BITS) | key;
+                            if (afterKey != null && nearKey <= afterKey) continue;
+                            if (nearest.size() == wanted && nearKey >= nearest.peek()) continue;
+                            if (type != null) {
+                                Listing l = s.byId.get(idOf(key));
+                                if (l == null || !type.equals(l.vehicleType())) continue;
+                            }
+                            if (nearest.size() == wanted) nearest.poll();
+                            nearest.add(nearKey);
+                        }
+                    }
+                }
+            }
+            int n = nearest.size();
+            long[] keys = new long[n];
+            for (int k = n - 1; k >= 0; k--) keys[k] = nearest.poll();
+
+            int size = Math.min(n, limit);
+            List<Listing> page = new ArrayList<>(size);
+            double[] distances = new double[size];
+            for (int k = 0; k < size; k++) {
+                page.add(s.byId.get(idOf(keys[k] & SORT_KEY_MASK)));
+                distances[k] = (keys[k] >>> SORT_KEY_BITS) / 10.0;
+            }
+            Long nextKey = n > limit ? keys[size - 1] : null;
+            return new Page(page, distances, nextKey, pageVersion(s, page, distances, nextKey));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Page collect(Snapshot s, NavigableSet<Long> keys, Long afterKey, int limit,
+                                Predicate<Listing> filter) {
+        List<Listing> page = new ArrayList<>(Math.min(limit, 64));
+        Long nextKey = collectInto(s, keys, afterKey, limit, filter, page)
+                ? s.sortKeys.get(page.get(page.size() - 1).id())
+                : null;
+        return new Page(page, null, nextKey, pageVersion(s, page, null, nextKey));
+    }
+
+    /**
+     * Appends matches after {@code afterKey} to {@code out} until it holds {@code limit};
+     * returns true if at least one more match exists beyond that.
+     */
+    private static boolean collectInto(Snapshot s, NavigableSet<Long> keys, Long afterKey, int limit,
+                                       Predicate<Listing> filter, List<Listing> out) {
+        NavigableSet<Long> tail = afterKey == null ? keys : keys.tailSet(afterKey, false);
+        for (Long key : tail) {
+            Listing l = s.byId.get(idOf(key));
+            if (l == null || !filter.test(l)) continue;
+            if (out.size() == limit) return true;
+            out.add(l);
+        }
+        return false;
+    }
+
+    /**
+     * Applies the index ordering and cursor to listings loaded some other way
+     * (the database fallback used before the first load completes).
+     */
+    public static Page paginate(Collection<Listing> listings, Long afterKey, int limit) {
+        NavigableSet<Long> keys = new TreeSet<>();
+        Snapshot s = new Snapshot(null, null);
+        LocalDate today = LocalDate.now();
+        for (Listing l : listings) {
+            long key = sortKey(l, today);
+            s.byId.put(l.id(), l);
+            s.sortKeys.put(l.id(), key);
+            keys.add(key);
+        }
+        return collect(s, keys, afterKey, limit, l -> true);
+    }
+
+    private static String trimToEmpty(String s) {
+        return s == null ? "" : s.trim();
+    }
+
+    private static String trimToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * BlurHash encoder (https://blurha.sh): a few DCT components of an image packed into a
+ * short base-83 string that a client can decode into a blurred preview.
+ *
+ * Encoding cost grows with pixels x components, so pass a small image (32px or so); the
+ * hash does not get better from more detail.
+ */
+public final class BlurHash {
+
+    private static final String DIGITS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {}
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] rgb = image.getRGB(0, 0, width, height, null, 0, width);
+        double[] linear = new double[rgb.length * 3];
+        for (int i = 0; i < rgb.length; i++) {
+            linear[i * 3] = srgbToLinear((rgb[i] >> 16) & 0xff);
+            linear[i * 3 + 1] = srgbToLinear((rgb[i] >> 8) & 0xff);
+            linear[i * 3 + 2] = srgbToLinear(rgb[i] & 0xff);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                double normalisation = (i == 0 && j == 0) ? 1 : 2;
+                double r = 0, g = 0, b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        double basis = Math.cos(Math.PI * i * x / width) * basisY;
+                        int p = (y * width + x) * 3;
+                        r += basis * linear[p];
+                        g += basis * linear[p + 1];
+                        b += basis * linear[p + 2];
+                    }
+                }
+                double scale = normalisation / (width * height);
+                factors[j * componentsX + i] = new double[] { r * scale, g * scale, b * scale };
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double v : factors[k]) actualMaximum = Math.max(actualMaximum, Math.abs(v));
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            maximumValue = 1;
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            int value = quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue);
+            encode83(hash, value, 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double signPow = Math.copySign(Math.pow(Math.abs(value / maximumValue), 0.5), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(signPow * 9 + 9.5)));
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / pow83(length - i)) % 83;
+            out.append(DIGITS.charAt(digit));
+        }
+    }
+
+    private static int pow83(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) result *= 83;
+        return result;
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags built from in-memory version numbers, so a conditional GET can be
+ * answered with 304 before any database read or JSON serialization.
+ */
+public final class ETagUtil {
+
+    // Marks the representation CompressedResponseCacheFilter gzipped, which has different bytes
+    private static final String GZIP_SUFFIX = "-gz";
+
+    private ETagUtil() {}
+
+    /** Quoted strong ETag, e.g. {@code "v-1f3a9c"}. */
+    public static String strong(String prefix, long version) {
+        return "\"" + prefix + "-" + Long.toHexString(version) + "\"";
+    }
+
+    /** The ETag of the gzip-encoded form of the representation tagged {@code etag}. */
+    public static String gzipped(String etag) {
+        if (etag == null || !etag.endsWith("\"") || etag.endsWith(GZIP_SUFFIX + "\"")) return etag;
+        return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * True if the client's If-None-Match header already names {@code etag}, in either its
+     * identity or its gzip form. Handles "*" and comma-separated lists; weak validators never
+     * match a strong tag.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty() || etag == null) return false;
+        String gzipEtag = gzipped(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || c.equals(etag) || c.equals(gzipEtag)) return true;
+        }
+        return false;
+    }
+
+    /** True if {@code etag} is the gzip form and also listed in If-None-Match. */
+    public static boolean matchesGzipped(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String gzipEtag = gzipped(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (candidate.trim().equals(gzipEtag)) return true;
+        }
+        return false;
+    }
+
+    public static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import com.example.demo.service.ImageProcessor;
+
+/**
+ * Responses shared by the endpoints that accept photo uploads.
+ */
+public final class ImageUploadUtil {
+
+    // Long enough for a burst on the image pool to drain
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private ImageUploadUtil() {}
+
+    /**
+     * 503 with Retry-After when the image pool was busy, 415 for a format that is never accepted.
+     */
+    public static ResponseEntity<?> rejected(ImageProcessor.ImageRejectedException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("retryable", e.isRetryable());
+        if (e.isRetryable()) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).body(errorResponse);
+        }
+        return ResponseEntity.status(415).body(errorResponse);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.demo.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Maps free-text vehicle types ("chota hathi", "tata 407 truck", "Packers & Movers")
+ * to the canonical names stored in registration.vehicle_type.
+ *
+ * All aliases are compiled into one Aho-Corasick automaton, so the input is scanned
+ * once regardless of how many aliases there are, and the longest alias found anywhere
+ * in the input wins (earliest one on a tie). "tata 407" therefore always beats "407"
+ * and "e-rickshaw" always beats "rickshaw", independent of table order.
+ */
+public final class VehicleTypeNormalizer {
+
+    // alias (lower case) -> canonical type. Every canonical name is also an alias of itself.
+    private static final String[][] ALIASES = {
+        {"manual cart (thel / rickshaw)", "Manual Cart (Thel / Rickshaw)"},
+        {"manual cart", "Manual Cart (Thel / Rickshaw)"},
+        {"thel", "Manual Cart (Thel / Rickshaw)"},
+        {"thela", "Manual Cart (Thel / Rickshaw)"},
+        {"rickshaw", "Manual Cart (Thel / Rickshaw)"},
+
+        {"auto loader (cng loader)", "Auto Loader (CNG loader)"},
+        {"auto loader", "Auto Loader (CNG loader)"},
+        {"cng loader", "Auto Loader (CNG loader)"},
+        {"auto", "Auto Loader (CNG loader)"},
+
+        {"tata ace (chhota hathi)", "Tata Ace (Chhota Hathi)"},
+        {"tata ace", "Tata Ace (Chhota Hathi)"},
+        {"chhota hathi", "Tata Ace (Chhota Hathi)"},
+        {"chota hathi", "Tata Ace (Chhota Hathi)"},
+
+        {"e-rickshaw loader (tuk-tuk)", "E-Rickshaw Loader (Tuk-Tuk)"},
+        {"e-rickshaw", "E-Rickshaw Loader (Tuk-Tuk)"},
+        {"e rickshaw", "E-Rickshaw Loader (Tuk-Tuk)"},
+        {"tuk-tuk", "E-Rickshaw Loader (Tuk-Tuk)"},
+        {"tuk tuk", "E-Rickshaw Loader (Tuk-Tuk)"},
+
+        {"mini truck (eicher canter)", "Mini Truck (Eicher Canter)"},
+        {"mini truck", "Mini Truck (Eicher Canter)"},
+        {"eicher canter", "Mini Truck (Eicher Canter)"},
+        {"canter", "Mini Truck (Eicher Canter)"},
+
+        {"vikram tempo", "Vikram Tempo"},
+        {"vikram", "Vikram Tempo"},
+        {"tempo", "Vikram Tempo"},
+
+        {"bolero pickup (maxx)", "Bolero Pickup (MaXX)"},
+        {"bolero pickup", "Bolero Pickup (MaXX)"},
+        {"bolero", "Bolero Pickup (MaXX)"},
+        {"maxx", "Bolero Pickup (MaXX)"},
+
+        {"tata 407", "Tata 407"},
+        {"407", "Tata 407"},
+
+        {"6 wheeler", "6 wheeler"},
+        {"8 wheeler", "8 wheeler"},
+        {"12 wheeler and onwards", "12 wheeler and onwards"},
+        {"12 wheeler", "12 wheeler and onwards"},
+
+        {"container truck", "Container Truck"},
+        {"container", "Container Truck"},
+
+        {"open body truck (6 wheeler)", "Open Body Truck (6 wheeler)"},
+        {"open body truck", "Open Body Truck"},
+        {"open body", "Open Body Truck"},
+
+        {"closed body truck", "Closed Body Truck"},
+        {"closed body", "Closed Body Truck"},
+
+        {"flatbed truck", "Flatbed Truck"},
+        {"flatbed", "Flatbed Truck"},
+        {"flat bed", "Flatbed Truck"},
+
+        {"jcb", "JCB"},
+        {"crane", "Crane"},
+        {"ambulance", "Ambulance"},
+
+        {"trailer truck", "Trailer Truck"},
+        {"trailer", "Trailer Truck"},
+
+        {"tipper truck (dumper truck)", "Tipper Truck (Dumper Truck)"},
+        {"tipper truck", "Tipper Truck (Dumper Truck)"},
+        {"tipper", "Tipper Truck (Dumper Truck)"},
+        {"dumper truck", "Tipper Truck (Dumper Truck)"},
+        {"dumper", "Tipper Truck (Dumper Truck)"},
+
+        {"tanker truck", "Tanker Truck"},
+        {"tanker", "Tanker Truck"},
+
+        {"garbage truck", "Garbage Truck"},
+        {"garbage", "Garbage Truck"},
+
+        {"tow-truck", "Tow-Truck"},
+        {"tow truck", "Tow-Truck"},
+
+        {"refrigerated vans", "Refrigerated Vans"},
+        {"refrigerated van", "Refrigerated Vans"},
+        {"chilled van", "Refrigerated Vans"},
+        {"refrigerated trucks", "Refrigerated Trucks"},
+        {"refrigerated truck", "Refrigerated Trucks"},
+        {"chilled truck", "Refrigerated Trucks"},
+
+        {"packer&movers", "Packer&Movers"},
+        {"packers&movers", "Packer&Movers"},
+        {"packers and movers", "Packer&Movers"},
+        {"packers & movers", "Packer&Movers"},
+        {"packers", "Packer&Movers"},
+        {"packer", "Packer&Movers"},
+        {"movers", "Packer&Movers"},
+        {"mover", "Packer&Movers"},
+
+        {"parcel delivery", "Parcel Delivery"},
+        {"parcel", "Parcel Delivery"},
+        {"courier", "Parcel Delivery"},
+        {"delivery", "Parcel Delivery"},
+
+        {"food trucks", "Food trucks"},
+        {"food truck", "Food trucks"},
+        {"beverage trucks", "Beverage trucks"},
+        {"beverage truck", "Beverage trucks"},
+        {"drink truck", "Beverage trucks"},
+
+        // Generic category used by SEO landing pages
+        {"trucks", "Trucks"},
+        {"truck", "Trucks"},
+    };
+
+    // Automaton: goto edges per state, failure links, and for each state the longest
+    // alias that ends there (its own, or the best one reachable through failure links)
+    private static final List<Map<Character, Integer>> EDGES = new ArrayList<>();
+    private static final int[] FAIL;
+    private static final int[] BEST_LENGTH;
+    private static final String[] BEST_CANONICAL;
+
+    static {
+        EDGES.add(new HashMap<>());
+        List<Integer> depth = new ArrayList<>(List.of(0));
+        Map<Integer, String[]> terminal = new HashMap<>();
+        for (String[] alias : ALIASES) {
+            int state = 0;
+            for (char c : alias[0].toCharArray()) {
+                Integer next = EDGES.get(state).get(c);
+                if (next == null) {
+                    next = EDGES.size();
+                    EDGES.add(new HashMap<>());
+                    depth.add(depth.get(state) + 1);
+                    EDGES.get(state).put(c, next);
+                }
+                state = next;
+            }
+            terminal.putIfAbsent(state, alias);
+        }
+
+        int n = EDGES.size();
+        FAIL = new int[n];
+        BEST_LENGTH = new int[n];
+        BEST_CANONICAL = new String[n];
+
+        // Breadth-first so a state's failure target is always finished before the state
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : EDGES.get(0).values()) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            String[] own = terminal.get(state);
+            if (own != null) {
+                BEST_LENGTH[state] = depth.get(state);
+                BEST_CANONICAL[state] = own[1];
+            } else {
+                BEST_LENGTH[state] = BEST_LENGTH[FAIL[state]];
+                BEST_CANONICAL[state] = BEST_CANONICAL[FAIL[state]];
+            }
+            for (Map.Entry<Character, Integer> edge : EDGES.get(state).entrySet()) {
+                int child = edge.getValue();
+                FAIL[child] = step(FAIL[state], edge.getKey());
+                queue.add(child);
+            }
+        }
+    }
+
+    private VehicleTypeNormalizer() {}
+
+    private static int step(int state, char c) {
+        while (true) {
+            Integer next = EDGES.get(state).get(c);
+            if (next != null) return next;
+            if (state == 0) return 0;
+            state = FAIL[state];
+        }
+    }
+
+    /**
+     * Canonical vehicle type for {@code text}, or null if it mentions no known alias.
+     */
+    public static String canonical(String text) {
+        if (text == null || text.isBlank()) return null;
+        String input = text.trim().toLowerCase(Locale.ROOT);
+        int state = 0;
+        int bestLength = 0;
+        String best = null;
+        boolean lastWasSpace = false;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            // collapse runs of whitespace so "tata   ace" still matches
+            if (Character.isWhitespace(c)) {
+                if (lastWasSpace) continue;
+                lastWasSpace = true;
+                c = ' ';
+            } else {
+                lastWasSpace = false;
+            }
+            state = step(state, c);
+            if (BEST_LENGTH[state] > bestLength) {
+                bestLength = BEST_LENGTH[state];
+                best = BEST_CANONICAL[state];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Canonical vehicle type for {@code text}, or {@code text} itself when nothing matches.
+     */
+    public static String canonicalOrSelf(String text) {
+        String canonical = canonical(text);
+        return canonical != null ? canonical : text;
+    }
+}
@@ -1,49 +1,35 @@
 package com.example.demo.util;
 
-import java.util.LinkedHashMap;
 import java.util.Locale;
-import java.util.Map;
 
 public final class VehicleUtil {
-    private static final Map<String, String> VEHICLE_ALIASES = new LinkedHashMap<>();
-
-    static {
-        VEHICLE_ALIASES.put("maxx", "Bolero Pickup (MaXX)");
-        VEHICLE_ALIASES.put("bolero", "Bolero Pickup (MaXX)");
-        VEHICLE_ALIASES.put("bolero pickup", "Bolero Pickup (MaXX)");
-        VEHICLE_ALIASES.put("tata ace", "Tata Ace (Chhota Hathi)");
-        VEHICLE_ALIASES.put("chhota hathi", "Tata Ace (Chhota Hathi)");
-        VEHICLE_ALIASES.put("vikram tempo", "Vikram Tempo");
-        VEHICLE_ALIASES.put("mini truck", "Mini Truck (Eicher Canter)");
-        VEHICLE_ALIASES.put("container truck", "Container Truck");
-        VEHICLE_ALIASES.put("open body truck", "Open Body Truck (6 wheeler)");
-        VEHICLE_ALIASES.put("closed body truck", "Closed Body Truck");
-        VEHICLE_ALIASES.put("flatbed truck", "Flatbed Truck");
-        VEHICLE_ALIASES.put("e-rickshaw", "E-Rickshaw Loader (Tuk-Tuk)");
-        VEHICLE_ALIASES.put("jcb", "JCB");
-        VEHICLE_ALIASES.put("crane", "Crane");
-        VEHICLE_ALIASES.put("tanker", "Tanker Truck");
-        VEHICLE_ALIASES.put("garbage truck", "Garbage Truck");
-        VEHICLE_ALIASES.put("tow-truck", "Tow-Truck");
-        VEHICLE_ALIASES.put("packers", "Packer&Movers");
-        VEHICLE_ALIASES.put("movers", "Packer&Movers");
-        VEHICLE_ALIASES.put("parcel", "Parcel Delivery");
-        VEHICLE_ALIASES.put("food truck", "Food trucks");
-        VEHICLE_ALIASES.put("drink truck", "Drink trucks");
-        VEHICLE_ALIASES.put("truck", "Trucks");
-        VEHICLE_ALIASES.put("trucks", "Trucks");
-    }
-
     private VehicleUtil() {}
 
+    // Width of registration.plate_normalized
+    public static final int MAX_PLATE_LENGTH = 32;
+
     public static String normalizeType(String typeParam) {
         if (typeParam == null || typeParam.isBlank()) return null;
-        String key = typeParam.trim().toLowerCase(Locale.ROOT);
-        if (VEHICLE_ALIASES.containsKey(key)) return VEHICLE_ALIASES.get(key);
-        for (String k : VEHICLE_ALIASES.keySet()) {
-            if (key.contains(k)) return VEHICLE_ALIASES.get(k);
+        String canonical = VehicleTypeNormalizer.canonical(typeParam);
+        return canonical != null ? canonical : toTitle(typeParam);
+    }
+
+    /**
+     * Canonical plate number: upper case, letters and digits only ("dl-01 ab 1234" -> "DL01AB1234").
+     * Null when nothing is left. Must match the expression used to backfill registration.plate_normalized.
+     */
+    public static String normalizePlate(String plate) {
+        if (plate == null) return null;
+        StringBuilder sb = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            } else if (c >= 'a' && c <= 'z') {
+                sb.append((char) (c - ('a' - 'A')));
+            }
         }
-        return toTitle(typeParam);
+        return sb.length() == 0 ? null : sb.toString();
     }
 
     public static String toTitle(String str) {
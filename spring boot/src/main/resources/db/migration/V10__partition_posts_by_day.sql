@@ -0,0 +1,55 @@
+-- Range-partition posts by day on created_at (UTC days).
+-- Every post expires within a day or so of being created, so a whole day's partition
+-- can be dropped once its posts are gone instead of deleting and vacuuming row by row.
+-- Partitions are named posts_pYYYYMMDD; PostPartitionMaintenance keeps upcoming days
+-- created and drops old ones. posts_default only catches rows outside those days.
+
+do $$
+declare
+  first_day date;
+  last_day date;
+  d date;
+begin
+  -- already partitioned (or missing, V4 not applied): nothing to do
+  if to_regclass('public.posts') is null
+     or exists (select 1 from pg_partitioned_table where partrelid = 'public.posts'::regclass) then
+    return;
+  end if;
+
+  alter table posts rename to posts_unpartitioned;
+  alter table posts_unpartitioned rename constraint posts_pkey to posts_unpartitioned_pkey;
+  alter index if exists idx_posts_expires_at rename to idx_posts_unpartitioned_expires_at;
+  alter index if exists idx_posts_category_created rename to idx_posts_unpartitioned_category_created;
+  alter index if exists idx_posts_status rename to idx_posts_unpartitioned_status;
+  alter index if exists idx_posts_created_at rename to idx_posts_unpartitioned_created_at;
+
+  -- same columns, defaults and check constraints; the key has to include created_at
+  create table posts (like posts_unpartitioned including defaults including constraints)
+    partition by range (created_at);
+  alter table posts add constraint posts_pkey primary key (id, created_at);
+
+  create index idx_posts_expires_at on posts (expires_at);
+  create index idx_posts_category_created on posts (category, created_at desc);
+  create index idx_posts_status on posts (status);
+  create index idx_posts_created_at on posts (created_at desc);
+
+  create table posts_default partition of posts default;
+
+  select coalesce(min((created_at at time zone 'UTC')::date), current_date)
+    into first_day from posts_unpartitioned;
+  first_day := least(first_day, (now() at time zone 'UTC')::date);
+  last_day := (now() at time zone 'UTC')::date + 7;
+
+  d := first_day;
+  while d <= last_day loop
+    execute format(
+      'create table %I partition of posts for values from (%L) to (%L)',
+      'posts_p' || to_char(d, 'YYYYMMDD'),
+      d::timestamp at time zone 'UTC',
+      (d + 1)::timestamp at time zone 'UTC');
+    d := d + 1;
+  end loop;
+
+  insert into posts select * from posts_unpartitioned;
+  drop table posts_unpartitioned;
+end $$;
@@ -0,0 +1,10 @@
+-- Resized copies of uploaded images, keyed by the original's public URL.
+-- Written once the variants are in storage, so a URL listed here always exists.
+create table if not exists image_variants (
+  original_url text primary key,
+  card_url text not null,
+  thumb_url text not null,
+  width integer,
+  height integer,
+  created_at timestamptz not null default now()
+);
@@ -0,0 +1,7 @@
+-- BlurHash and dominant colour per uploaded image, for painting before it loads.
+-- Placeholders are written at upload (and by the backfill job for older images),
+-- before or without variants, so the variant columns become optional.
+alter table image_variants alter column card_url drop not null;
+alter table image_variants alter column thumb_url drop not null;
+alter table image_variants add column if not exists blurhash text;
+alter table image_variants add column if not exists dominant_color text;
@@ -0,0 +1,16 @@
+-- Indexes for registration lookups (search by type + pincode prefix, per-user lists, plate checks).
+-- The registration table is created by Hibernate, so skip quietly on a fresh database.
+do $$
+begin
+  if to_regclass('public.registration') is not null then
+    -- text_pattern_ops lets "pincode LIKE '1100%'" use the index regardless of collation
+    create index if not exists idx_registration_type_pincode
+      on registration (vehicle_type, pincode text_pattern_ops);
+    create index if not exists idx_registration_pincode
+      on registration (pincode text_pattern_ops);
+    create index if not exists idx_registration_user_id
+      on registration (user_id);
+    create index if not exists idx_registration_plate_number
+      on registration (vehicle_plate_number);
+  end if;
+end $$;
@@ -0,0 +1,10 @@
+-- Trust counter used by search ranking. Older databases got it by hand; make sure it exists
+-- with a zero default so new registrations start at 0 instead of NULL.
+do $$
+begin
+  if to_regclass('public.registration') is not null then
+    alter table registration add column if not exists call_tracking integer;
+    update registration set call_tracking = 0 where call_tracking is null;
+    alter table registration alter column call_tracking set default 0;
+  end if;
+end $$;
@@ -0,0 +1,44 @@
+-- Fuzzy admin search over registrations: trigram GIN indexes make ILIKE '%term%' and
+-- similarity() on name / plate / phone index-backed instead of sequential scans.
+create extension if not exists pg_trgm;
+
+-- Folds common Hindi-English transliteration variants onto one spelling, so that
+-- "Choudhary" / "Chaudhari" / "chowdhry" or "Sharmaa" / "sharma" land close together:
+--   ee -> i, oo -> u, w -> v, z -> j, ph -> f, ou/au/ow -> o,
+--   aspirated consonants drop the h (bh, ch, dh, gh, jh, kh, ph, sh, th -> b, c, d, ...),
+--   doubled letters collapse and a trailing y becomes i.
+create or replace function translit_key(t text) returns text
+language sql immutable parallel safe as $$
+  select regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(
+         regexp_replace(lower(coalesce(t, '')),
+           'ee', 'i', 'g'),
+           'oo', 'u', 'g'),
+           'ph', 'f', 'g'),
+           '([bcdgjkst])h', '\1', 'g'),
+           '(ou|au|ow)', 'o', 'g'),
+           'w', 'v', 'g'),
+           'z', 'j', 'g'),
+           '([a-z])\1+', '\1', 'g'),
+           'y\M', 'i', 'g')
+$$;
+
+do $$
+begin
+  if to_regclass('public.registration') is not null then
+    create index if not exists idx_registration_full_name_trgm
+      on registration using gin (full_name gin_trgm_ops);
+    create index if not exists idx_registration_full_name_translit_trgm
+      on registration using gin (translit_key(full_name) gin_trgm_ops);
+    create index if not exists idx_registration_plate_trgm
+      on registration using gin (vehicle_plate_number gin_trgm_ops);
+    create index if not exists idx_registration_contact_trgm
+      on registration using gin (contact_number gin_trgm_ops);
+  end if;
+end $$;
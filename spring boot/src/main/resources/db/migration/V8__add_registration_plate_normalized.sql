@@ -0,0 +1,53 @@
+-- Plate numbers in one canonical form ("dl-01 ab 1234" -> "DL01AB1234") so that spacing,
+-- dashes and case no longer make the same plate look different. The application keeps the
+-- column in sync on every save; this backfills existing rows.
+--
+-- Duplicates were allowed until now, and the unique index below is what settles two
+-- registrations of the same plate racing past the application check. So existing data is
+-- made to fit it rather than blocking the deploy: of rows sharing a plate only the oldest
+-- gets plate_normalized, and rows whose canonical plate is over 32 characters get none.
+-- Rows left NULL are listed in the migration output; they are not duplicate-checked until
+-- their plate is edited, at which point the application fills the column in.
+do $$
+declare
+  duplicates bigint;
+  duplicate_ids text;
+  too_long bigint;
+  too_long_ids text;
+begin
+  if to_regclass('public.registration') is not null then
+    alter table registration add column if not exists plate_normalized varchar(32);
+
+    update registration r
+       set plate_normalized = c.plate
+      from (select id, case when plate is not null and length(plate) <= 32
+                             and row_number() over (partition by plate order by id) = 1
+                            then plate end as plate
+              from (select id, nullif(upper(regexp_replace(vehicle_plate_number, '[^A-Za-z0-9]', '', 'g')), '') as plate
+                      from registration) p) c
+     where r.id = c.id
+       and r.plate_normalized is distinct from c.plate;
+
+    select count(*), array_to_string((array_agg(id order by id))[1:50], ', ')
+      into too_long, too_long_ids
+      from registration
+     where length(upper(regexp_replace(vehicle_plate_number, '[^A-Za-z0-9]', '', 'g'))) > 32;
+    if too_long > 0 then
+      raise warning 'registration: % plate numbers are longer than 32 characters and were left without plate_normalized (ids: %)',
+        too_long, too_long_ids;
+    end if;
+
+    select count(*), array_to_string((array_agg(id order by id))[1:50], ', ')
+      into duplicates, duplicate_ids
+      from registration
+     where plate_normalized is null
+       and length(upper(regexp_replace(vehicle_plate_number, '[^A-Za-z0-9]', '', 'g'))) between 1 and 32;
+    if duplicates > 0 then
+      raise warning 'registration: % rows repeat the plate of an older registration and were left without plate_normalized (ids: %)',
+        duplicates, duplicate_ids;
+    end if;
+
+    create unique index if not exists idx_registration_plate_normalized
+      on registration (plate_normalized);
+  end if;
+end $$;
@@ -0,0 +1,20 @@
+-- Listing counts per (city, vehicle type) for SEO landing pages and the sitemap.
+-- Refreshed in the background by ListingCountService, so page renders never aggregate
+-- the registration table. The unique index is what allows REFRESH ... CONCURRENTLY.
+do $$
+begin
+  if to_regclass('public.registration') is not null
+     and to_regclass('public.registration_listing_counts') is null then
+    create materialized view registration_listing_counts as
+      select lower(btrim(city))                               as city_key,
+             mode() within group (order by btrim(city))       as city,
+             vehicle_type,
+             count(*)                                         as listings
+        from registration
+       where city is not null and btrim(city) <> '' and vehicle_type is not null
+       group by lower(btrim(city)), vehicle_type;
+
+    create unique index idx_registration_listing_counts_key
+      on registration_listing_counts (city_key, vehicle_type);
+  end if;
+end $$;
@@ -0,0 +1,63 @@
+package com.example.demo;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Minimal before/after harness for the *Benchmark mains under src/test/java; JMH is not on
+ * the build. Each case runs warm-up rounds, then timed rounds on the calling thread, and
+ * reports the median time and the bytes allocated per operation. Run one with, e.g.,
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.example.demo.util.VehicleTypeNormalizerBenchmark
+ * </pre>
+ *
+ * Numbers are for comparing the two sides of one run, not across machines.
+ */
+public final class MicroBench {
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int ROUNDS = 15;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT cannot drop the work being measured
+    private static volatile long sink;
+
+    private MicroBench() {}
+
+    /** One round: performs {@code ops} operations. */
+    @FunctionalInterface
+    public interface Round {
+        void run(int ops) throws Exception;
+    }
+
+    public static void consume(Object o) {
+        sink += o == null ? 0 : o.hashCode();
+    }
+
+    /**
+     * Prints and returns the median nanoseconds per operation of {@code round}.
+     */
+    public static double measure(String label, int ops, Round round) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) round.run(ops);
+        double[] nanos = new double[ROUNDS];
+        double[] bytes = new double[ROUNDS];
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            round.run(ops);
+            nanos[i] = (double) (System.nanoTime() - start) / ops;
+            bytes[i] = (double) (THREADS.getThreadAllocatedBytes(thread) - allocatedBefore) / ops;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        double medianNanos = nanos[ROUNDS / 2];
+        System.out.printf("%-48s %10.1f ns/op %10.0f B/op%n", label, medianNanos, bytes[ROUNDS / 2]);
+        return medianNanos;
+    }
+}
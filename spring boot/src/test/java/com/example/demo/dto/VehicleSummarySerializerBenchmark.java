@@ -0,0 +1,185 @@
+package com.example.demo.dto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.MicroBench;
+import com.example.demo.model.Registration;
+import com.example.demo.service.ImageVariantRegistry;
+import com.example.demo.service.VehicleSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time and bytes allocated per vehicle for the two vehicle JSON shapes, before and after the
+ * record DTOs: a search page written field by field with writeStringField against
+ * {@link VehicleSummary} through {@link VehicleSummarySerializer}, and a detail response
+ * built as three HashMaps per vehicle against {@link VehicleDetail}. Output goes to a
+ * discarding stream so only serialization is counted.
+ */
+public final class VehicleSummarySerializerBenchmark {
+
+    private static final int PAGE = 20;
+    private static final int OPS = 2_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // No variants recorded: every card falls back to the original and has no placeholder
+    private static final ImageVariantRegistry IMAGES = new ImageVariantRegistry(null);
+
+    public static void main(String[] args) throws Exception {
+        Registration registration = registration();
+        VehicleSearchIndex.Listing listing = VehicleSearchIndex.Listing.from(registration);
+
+        double before = MicroBench.measure("search, before: writeStringField per vehicle", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                try (JsonGenerator gen = MAPPER.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+                    gen.writeStartArray();
+                    for (int v = 0; v < PAGE; v++) legacyWriteVehicle(gen, listing, 3.14);
+                    gen.writeEndArray();
+                }
+            }
+        });
+        double after = MicroBench.measure("search, after: VehicleSummary + serializer", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                try (JsonGenerator gen = MAPPER.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+                    gen.writeStartArray();
+                    for (int v = 0; v < PAGE; v++) {
+                        MAPPER.writeValue(gen, VehicleMapper.summary(listing, IMAGES, 3.14));
+                    }
+                    gen.writeEndArray();
+                }
+            }
+        });
+        System.out.printf("search page of %d: before/after %.2f (per vehicle: divide ns and B by %d)%n",
+            PAGE, before / after, PAGE);
+        // Writing only: the summary (and its card and placeholder lists) built once up front
+        VehicleSummary summary = VehicleMapper.summary(listing, IMAGES, 3.14);
+        MicroBench.measure("search, after: serializer only", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                try (JsonGenerator gen = MAPPER.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+                    gen.writeStartArray();
+                    for (int v = 0; v < PAGE; v++) MAPPER.writeValue(gen, summary);
+                    gen.writeEndArray();
+                }
+            }
+        });
+
+        before = MicroBench.measure("detail, before: HashMaps + Jackson", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                MAPPER.writeValue(OutputStream.nullOutputStream(), legacyVehicleData(registration));
+            }
+        });
+        after = MicroBench.measure("detail, after: VehicleDetail record", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                MAPPER.writeValue(OutputStream.nullOutputStream(), VehicleMapper.detail(registration, IMAGES));
+            }
+        });
+        System.out.printf("detail: before/after %.2f%n", before / after);
+    }
+
+    private static Registration registration() {
+        Registration r = new Registration();
+        r.setId(4711L);
+        r.setUserId(42L);
+        r.setFullName("Ramesh Kumar");
+        r.setVehicleType("Tata Ace (Chhota Hathi)");
+        r.setVehiclePlateNumber("MH12AB1234");
+        r.setContactNumber("9876543210");
+        r.setWhatsappNumber("9876543210");
+        r.setAlternateContactNumber("9123456780");
+        r.setState("Maharashtra");
+        r.setCity("Pune");
+        r.setPincode("411001");
+        r.setMembership("Premium");
+        r.setRegistrationDate(LocalDate.of(2024, 3, 14));
+        r.setHighlight1("Same day delivery");
+        r.setHighlight2("Covered body");
+        r.setHighlight3("Experienced driver");
+        r.setHighlight4("Loading help");
+        r.setHighlight5("GPS tracked");
+        String base = "https://x.supabase.co/storage/v1/object/public/vehicle-images/4711/";
+        r.setVehicleImageUrls(List.of(base + "front.jpg", base + "side.jpg", base + "back.jpg", base + "loading.jpg"));
+        return r;
+    }
+
+    // VehicleController.writeVehicle before VehicleSummary
+    private static void legacyWriteVehicle(JsonGenerator gen, VehicleSearchIndex.Listing listing,
+                                           Double distanceKm) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectField("id", listing.id());
+        gen.writeObjectField("userId", listing.userId());
+        gen.writeStringField("name", listing.fullName() + "'s " + listing.vehicleType());
+        gen.writeStringField("type", listing.vehicleType());
+        gen.writeArrayFieldStart("images");
+        for (String url : listing.imageUrls()) {
+            gen.writeString(url);
+        }
+        gen.writeEndArray();
+        gen.writeStringField("locationState", listing.state());
+        gen.writeStringField("locationCity", listing.city());
+        gen.writeStringField("locationPincode", listing.pincode());
+        gen.writeStringField("ownerName", listing.fullName());
+        gen.writeStringField("ownerPhone", listing.contactNumber());
+        gen.writeStringField("membership", listing.membership());
+        gen.writeStringField("registrationDate", listing.registrationDate() != null
+            ? listing.registrationDate().toString()
+            : LocalDate.now().toString());
+        gen.writeStringField("capacity", "Standard capacity");
+        gen.writeStringField("dimensions", "Standard dimensions");
+        gen.writeStringField("registrationNumber", listing.vehiclePlateNumber());
+        gen.writeStringField("availability", "Available Now");
+        gen.writeStringField("description", "");
+        gen.writeObjectFieldStart("highlights");
+        gen.writeStringField("highlight1", listing.highlight1());
+        gen.writeStringField("highlight2", listing.highlight2());
+        gen.writeStringField("highlight3", listing.highlight3());
+        gen.writeStringField("highlight4", listing.highlight4());
+        gen.writeStringField("highlight5", listing.highlight5());
+        gen.writeEndObject();
+        if (distanceKm != null) {
+            gen.writeNumberField("distanceKm", Math.round(distanceKm * 10) / 10.0);
+        }
+        gen.writeEndObject();
+    }
+
+    // VehicleController.toVehicleData and getVehiclePhotos before VehicleDetail
+    private static Map<String, Object> legacyVehicleData(Registration registration) {
+        Map<String, Object> vehicleData = new HashMap<>();
+        vehicleData.put("id", registration.getId());
+        vehicleData.put("userId", registration.getUserId());
+        vehicleData.put("owner", registration.getFullName());
+        vehicleData.put("type", registration.getVehicleType());
+        vehicleData.put("number", registration.getVehiclePlateNumber());
+        vehicleData.put("contact", registration.getContactNumber());
+        vehicleData.put("whatsapp", registration.getWhatsappNumber());
+        vehicleData.put("alternateContact", registration.getAlternateContactNumber());
+        vehicleData.put("location", registration.getCity() + ", " + registration.getState());
+        vehicleData.put("pincode", registration.getPincode());
+        vehicleData.put("membership", registration.getMembership());
+        vehicleData.put("registrationDate", registration.getRegistrationDate() != null
+            ? registration.getRegistrationDate().toString()
+            : "");
+
+        Map<String, String> photos = new HashMap<>();
+        List<String> imageUrls = registration.getVehicleImageUrls();
+        String defaultImage = VehicleMapper.DEFAULT_VEHICLE_IMAGE;
+        photos.put("front", imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage);
+        photos.put("side", imageUrls.size() > 1 ? imageUrls.get(1) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
+        photos.put("back", imageUrls.size() > 2 ? imageUrls.get(2) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
+        photos.put("loading", imageUrls.size() > 3 ? imageUrls.get(3) : (imageUrls.size() > 0 ? imageUrls.get(0) : defaultImage));
+        vehicleData.put("photos", photos);
+
+        Map<String, String> highlights = new HashMap<>();
+        highlights.put("highlight1", registration.getHighlight1());
+        highlights.put("highlight2", registration.getHighlight2());
+        highlights.put("highlight3", registration.getHighlight3());
+        highlights.put("highlight4", registration.getHighlight4());
+        highlights.put("highlight5", registration.getHighlight5());
+        vehicleData.put("highlights", highlights);
+        return vehicleData;
+    }
+}
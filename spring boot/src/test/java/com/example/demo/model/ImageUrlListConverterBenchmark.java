@@ -0,0 +1,60 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.MicroBench;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reading a registration's image URLs the way the entity did before the converter (every
+ * getVehicleImageUrls() call built an ObjectMapper and parsed the stored JSON) against
+ * the converter (parsed once at load, the getter returns the same list). A listing card
+ * or detail response reads the list a few times per registration; READS models that.
+ */
+public final class ImageUrlListConverterBenchmark {
+
+    private static final String JSON = "[\"https://x.supabase.co/storage/v1/object/public/vehicle-images/12/1712345678901_front.jpg\","
+        + "\"https://x.supabase.co/storage/v1/object/public/vehicle-images/12/1712345678902_side.jpg\","
+        + "\"https://x.supabase.co/storage/v1/object/public/vehicle-images/12/1712345678903_back.jpg\","
+        + "\"https://x.supabase.co/storage/v1/object/public/vehicle-images/12/1712345678904_cabin.jpg\"]";
+
+    private static final int READS = 3;
+    private static final int OPS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        MicroBench.measure("before: one parse, new ObjectMapper", OPS, ops -> {
+            for (int i = 0; i < ops; i++) MicroBench.consume(legacyParse(JSON));
+        });
+        MicroBench.measure("after: one ImageUrlListConverter.parse", OPS, ops -> {
+            for (int i = 0; i < ops; i++) MicroBench.consume(ImageUrlListConverter.parse(JSON));
+        });
+
+        double before = MicroBench.measure("before: load + " + READS + " getter calls", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                for (int r = 0; r < READS; r++) MicroBench.consume(legacyParse(JSON));
+            }
+        });
+        double after = MicroBench.measure("after: load + " + READS + " getter calls", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                Registration registration = new Registration();
+                registration.setVehicleImageUrlsJson(JSON);
+                for (int r = 0; r < READS; r++) MicroBench.consume(registration.getVehicleImageUrls());
+            }
+        });
+        System.out.printf("per registration: before/after %.1f%n", before / after);
+    }
+
+    // Registration.getVehicleImageUrls() before the converter
+    private static List<String> legacyParse(String json) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            List<String> urls = mapper.readValue(json,
+                mapper.getTypeFactory().constructCollectionType(List.class, String.class));
+            urls.removeIf(url -> url == null || url.isEmpty());
+            return urls;
+        } catch (Exception e) {
+            return new ArrayList<>();
+        }
+    }
+}
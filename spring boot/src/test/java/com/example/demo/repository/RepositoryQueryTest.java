@@ -0,0 +1,69 @@
+package com.example.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.example.demo.repository.ai.AIConversationRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Builds every repository against the real entity mappings, the way the application context
+ * does at startup, so derived queries, projections and JPQL naming a missing attribute fail
+ * here instead of at boot. Hibernate is told not to touch JDBC, so no database is needed.
+ */
+class RepositoryQueryTest {
+
+    private static LocalContainerEntityManagerFactoryBean factoryBean;
+    private static EntityManager entityManager;
+
+    @BeforeAll
+    static void bootstrap() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("hibernate.temp.use_jdbc_metadata_defaults", "false");
+        properties.put("hibernate.hbm2ddl.auto", "none");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        // Never connected to: metadata access is off and no query is executed
+        factoryBean.setDataSource(new DriverManagerDataSource("jdbc:postgresql://localhost:1/unused"));
+        factoryBean.setPackagesToScan("com.example.demo.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory emf = factoryBean.getObject();
+        entityManager = emf.createEntityManager();
+    }
+
+    @AfterAll
+    static void close() {
+        if (entityManager != null) entityManager.close();
+        if (factoryBean != null) factoryBean.destroy();
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {
+        RegistrationRepository.class,
+        UserRepository.class,
+        PostRepository.class,
+        FeedbackRepository.class,
+        ContactSubmissionRepository.class,
+        RegistrationImageFolderRepository.class,
+        AIConversationRepository.class
+    })
+    void repositoryQueriesResolveAgainstEntities(Class<?> repositoryInterface) {
+        assertNotNull(new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * {@link PlateNumberRegistry}: which checks the Bloom filter answers alone and which go to
+ * the database, and when a resize is scheduled.
+ */
+class PlateNumberRegistryTest {
+
+    private static final String EXISTS_SQL = "SELECT EXISTS";
+
+    private JdbcTemplate jdbcTemplate;
+    private TaskScheduler taskScheduler;
+    private PlateNumberRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        taskScheduler = mock(TaskScheduler.class);
+        registry = new PlateNumberRegistry(jdbcTemplate, taskScheduler);
+    }
+
+    private void storedPlates(String... plates) throws Exception {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*)"), eq(Long.class)))
+            .thenReturn((long) plates.length);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (String plate : plates) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(plate);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT plate_normalized"), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void unknownPlateIsAnsweredWithoutTheDatabase() throws Exception {
+        storedPlates("MH12AB1234", "DL01CD5678");
+        registry.rebuild();
+
+        assertFalse(registry.exists("KA 05 ZZ 0001"));
+        verify(jdbcTemplate, never()).queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), anyString());
+    }
+
+    @Test
+    void filterHitIsConfirmedWithTheNormalizedPlate() throws Exception {
+        storedPlates("MH12AB1234");
+        registry.rebuild();
+        when(jdbcTemplate.queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), eq("MH12AB1234")))
+            .thenReturn(true);
+
+        assertTrue(registry.exists("mh-12 ab 1234"));
+        verify(jdbcTemplate).queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), eq("MH12AB1234"));
+    }
+
+    @Test
+    void addedPlateIsCheckedAgainstTheDatabase() throws Exception {
+        storedPlates();
+        registry.rebuild();
+        assertFalse(registry.exists("UP32XY0001"));
+
+        registry.add("up 32 xy 0001");
+        when(jdbcTemplate.queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), eq("UP32XY0001")))
+            .thenReturn(true);
+        assertTrue(registry.exists("UP32XY0001"));
+    }
+
+    @Test
+    void everyCheckGoesToTheDatabaseWhenTheFilterCouldNotLoad() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*)"), eq(Long.class)))
+            .thenThrow(new RuntimeException("connection refused"));
+        registry.rebuild();
+        when(jdbcTemplate.queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), eq("GJ01AA1111")))
+            .thenReturn(true);
+
+        assertTrue(registry.exists("GJ01AA1111"));
+    }
+
+    @Test
+    void plateWithoutLettersOrDigitsIsNeverRegistered() throws Exception {
+        storedPlates();
+        registry.rebuild();
+
+        assertFalse(registry.exists(" - "));
+        assertFalse(registry.exists(null));
+        verify(jdbcTemplate, never()).queryForObject(startsWith(EXISTS_SQL), eq(Boolean.class), anyString());
+    }
+
+    @Test
+    void growingPastCapacitySchedulesOneResize() throws Exception {
+        storedPlates();
+        registry.rebuild();
+
+        // An empty table is sized for 10,000 plates
+        for (int i = 0; i <= 10_050; i++) {
+            registry.add("TS" + i);
+        }
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+}
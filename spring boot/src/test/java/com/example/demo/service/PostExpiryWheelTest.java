@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * {@link PostExpiryWheel} driven tick by tick from a fixed start: every deadline fires on
+ * its own second, whichever level it was placed on, and only once.
+ */
+class PostExpiryWheelTest {
+
+    // Deliberately not a multiple of 64, so level boundaries fall mid-run
+    private static final long T0 = 1_700_000_037L;
+
+    private JdbcTemplate jdbcTemplate;
+    private PostFeedStream postFeedStream;
+    private PostFeedCache postFeedCache;
+    private PostExpiryWheel wheel;
+    // One entry per UPDATE: the ids it was given
+    private final List<List<String>> updates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        postFeedStream = mock(PostFeedStream.class);
+        postFeedCache = mock(PostFeedCache.class);
+        wheel = new PostExpiryWheel(jdbcTemplate, postFeedStream, postFeedCache);
+        ReflectionTestUtils.setField(wheel, "currentTick", T0);
+
+        doAnswer(invocation -> {
+            PreparedStatementSetter setter = invocation.getArgument(1);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            Connection connection = mock(Connection.class);
+            when(ps.getConnection()).thenReturn(connection);
+            List<String> ids = new ArrayList<>();
+            when(connection.createArrayOf(eq("uuid"), any())).thenAnswer(a -> {
+                ids.addAll(Arrays.asList((Object[]) a.getArgument(1)).stream().map(String::valueOf).toList());
+                return null;
+            });
+            setter.setValues(ps);
+            updates.add(ids);
+            return ids;
+        }).when(jdbcTemplate).query(startsWith("UPDATE posts"), any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+
+    private static OffsetDateTime at(long epochSecond) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+    }
+
+    private List<String> firedAt(long tick) {
+        int before = updates.size();
+        wheel.advanceTo(tick);
+        List<String> fired = new ArrayList<>();
+        for (List<String> ids : updates.subList(before, updates.size())) fired.addAll(ids);
+        return fired;
+    }
+
+    @Test
+    void deadlineOnEachLevelFiresOnItsOwnSecond() {
+        // level 0, 1, 2 and 3 respectively
+        long[] offsets = {5, 100, 5_000, 300_000};
+        for (long offset : offsets) wheel.schedule("p" + offset, at(T0 + offset));
+
+        for (long offset : offsets) {
+            assertEquals(List.of(), firedAt(T0 + offset - 1), "early at " + offset);
+            assertEquals(List.of("p" + offset), firedAt(T0 + offset), "at " + offset);
+        }
+        assertEquals(0, wheel.stats().get("pending"));
+    }
+
+    @Test
+    void fractionalDeadlineIsRoundedUp() {
+        wheel.schedule("p", at(T0 + 5).plusNanos(200_000_000));
+
+        assertEquals(List.of(), firedAt(T0 + 5));
+        assertEquals(List.of("p"), firedAt(T0 + 6));
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        wheel.schedule("late", at(T0 - 3_600));
+        assertEquals(List.of("late"), firedAt(T0 + 1));
+    }
+
+    @Test
+    void deadlineBeyondTheTopLevelIsParkedAndStillFiresOnTime() {
+        // Past the ~194 days the four levels cover
+        long offset = (1L << 24) + 12_345;
+        wheel.schedule("far", at(T0 + offset));
+
+        assertEquals(List.of(), firedAt(T0 + offset - 1));
+        assertEquals(List.of("far"), firedAt(T0 + offset));
+    }
+
+    @Test
+    void everyRandomDeadlineFiresOnceInTheRightStep() {
+        Random random = new Random(7);
+        Map<String, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long tick = T0 + 1 + (long) (random.nextDouble() * 400_000);
+            deadlines.put("p" + i, tick);
+            wheel.schedule("p" + i, at(tick));
+        }
+
+        long now = T0;
+        int fired = 0;
+        while (now < T0 + 400_001) {
+            long next = now + 1 + random.nextInt(900);
+            for (String id : firedAt(next)) {
+                long deadline = deadlines.get(id);
+                assertTrue(deadline > now && deadline <= next, id + " due " + deadline + " fired in (" + now + ", " + next + "]");
+                fired++;
+            }
+            now = next;
+        }
+        assertEquals(deadlines.size(), fired);
+    }
+
+    @Test
+    void oneUpdatePerStepAndTheFeedHearsAboutIt() {
+        wheel.schedule("a", at(T0 + 2));
+        wheel.schedule("b", at(T0 + 2));
+        wheel.schedule("c", at(T0 + 3));
+
+        assertEquals(List.of("a", "b", "c"), firedAt(T0 + 3));
+        assertEquals(1, updates.size());
+        verify(postFeedStream).postsExpired(List.of("a", "b", "c"));
+        verify(postFeedCache).invalidate();
+    }
+
+    @Test
+    void failedUpdateStillInvalidatesTheCachedFeed() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database down");
+        }).when(jdbcTemplate).query(startsWith("UPDATE posts"), any(PreparedStatementSetter.class), any(RowMapper.class));
+        wheel.schedule("a", at(T0 + 1));
+
+        wheel.advanceTo(T0 + 1);
+
+        verify(postFeedCache, times(1)).invalidate();
+        verify(postFeedStream, never()).postsExpired(anyList());
+        assertEquals(1L, wheel.stats().get("failedBatches"));
+    }
+}
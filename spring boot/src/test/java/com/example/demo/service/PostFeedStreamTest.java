@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * {@link PostFeedStream} ring-buffer resume: what a client reconnecting with Last-Event-ID
+ * is sent, and that replay and live events meet without gaps or repeats.
+ */
+class PostFeedStreamTest {
+
+    private static final int BUFFER = 16;
+    private static final Pattern HEADER = Pattern.compile("id:(\\S+)\nevent:(\\S+)\n");
+
+    /** An event as a subscriber saw it. */
+    private record Seen(String id, String name) {}
+
+    /** Emitter that records what it is sent instead of writing to a response. */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<Seen> seen = new CopyOnWriteArrayList<>();
+        volatile boolean broken;
+
+        RecordingEmitter() {
+            super(0L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) throw new IOException("client went away");
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof String s) text.append(s);
+            });
+            Matcher m = HEADER.matcher(text);
+            if (m.find()) seen.add(new Seen(m.group(1), m.group(2)));
+        }
+
+        List<String> names() {
+            return seen.stream().map(Seen::name).toList();
+        }
+    }
+
+    private PostFeedStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new PostFeedStream(BUFFER) {
+            @Override
+            SseEmitter newEmitter() {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) {
+        RecordingEmitter emitter = (RecordingEmitter) stream.subscribe(lastEventId);
+        await(() -> !emitter.seen.isEmpty());
+        return emitter;
+    }
+
+    // Events go out on the stream's own thread
+    private static void await(BooleanSupplier condition) {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > until) throw new AssertionError("timed out");
+            Thread.onSpinWait();
+        }
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) stream.postsExpired(List.of("post-" + i));
+    }
+
+    // Returns the ids of every event published, as seen by a subscriber that was there throughout
+    private List<String> publishWatched(int count) {
+        RecordingEmitter watcher = subscribe(null);
+        int before = watcher.seen.size();
+        publish(count);
+        await(() -> watcher.seen.size() == before + count);
+        List<String> ids = new ArrayList<>();
+        for (Seen s : watcher.seen.subList(before, before + count)) ids.add(s.id());
+        return ids;
+    }
+
+    @Test
+    void freshSubscriberGetsReadyThenLiveEvents() {
+        RecordingEmitter emitter = subscribe(null);
+        assertEquals(List.of("ready"), emitter.names());
+
+        publish(2);
+        await(() -> emitter.seen.size() == 3);
+        assertEquals(List.of("ready", "expired", "expired"), emitter.names());
+    }
+
+    @Test
+    void resumeReplaysEverythingAfterTheIdThenContinuesLive() {
+        List<String> ids = publishWatched(5);
+
+        RecordingEmitter resumed = subscribe(ids.get(1));
+        await(() -> resumed.seen.size() == 3);
+        publish(1);
+        await(() -> resumed.seen.size() == 4);
+
+        List<String> got = resumed.seen.stream().map(Seen::id).toList();
+        assertEquals(ids.subList(2, 5), got.subList(0, 3));
+        assertFalse(ids.contains(got.get(3)), "live event " + got.get(3) + " repeats a replayed one");
+    }
+
+    @Test
+    void resumeFromTheLatestIdSendsNothingUntilTheNextEvent() {
+        List<String> ids = publishWatched(3);
+
+        RecordingEmitter resumed = (RecordingEmitter) stream.subscribe(ids.get(2));
+        publish(1);
+        await(() -> !resumed.seen.isEmpty());
+        assertEquals(List.of("expired"), resumed.names());
+    }
+
+    @Test
+    void resumeWorksAcrossTheRingWrapping() {
+        List<String> ids = publishWatched(BUFFER * 2 + 5);
+
+        int from = ids.size() - BUFFER;
+        RecordingEmitter resumed = subscribe(ids.get(from));
+        await(() -> resumed.seen.size() == BUFFER - 1);
+        assertEquals(ids.subList(from + 1, ids.size()), resumed.seen.stream().map(Seen::id).toList());
+    }
+
+    @Test
+    void idOlderThanTheBufferGetsReset() {
+        List<String> ids = publishWatched(BUFFER + 3);
+
+        assertEquals(List.of("reset"), subscribe(ids.get(0)).names());
+    }
+
+    @Test
+    void unknownForeignOrFutureIdsGetReset() {
+        List<String> ids = publishWatched(2);
+        String epoch = ids.get(0).substring(0, ids.get(0).indexOf('-'));
+
+        assertEquals(List.of("reset"), subscribe("garbage").names());
+        assertEquals(List.of("reset"), subscribe("zz" + epoch + "-1").names());
+        assertEquals(List.of("reset"), subscribe(epoch + "-x").names());
+        assertEquals(List.of("reset"), subscribe(epoch + "-99").names());
+    }
+
+    @Test
+    void failingSubscriberIsDropped() {
+        RecordingEmitter healthy = subscribe(null);
+        RecordingEmitter failing = subscribe(null);
+        // Added to the list just after "ready" is sent
+        await(() -> stream.subscriberCount() == 2);
+
+        failing.broken = true;
+        publish(1);
+        await(() -> healthy.seen.size() == 2);
+        await(() -> stream.subscriberCount() == 1);
+    }
+
+    @Test
+    void emptyExpiryIsNotAnEvent() {
+        RecordingEmitter emitter = subscribe(null);
+        stream.postsExpired(List.of());
+        publish(1);
+        await(() -> emitter.seen.size() == 2);
+        assertEquals(List.of("ready", "expired"), emitter.names());
+    }
+}
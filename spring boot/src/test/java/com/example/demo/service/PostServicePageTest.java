@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.example.demo.dto.PostResponse;
+import com.example.demo.repository.PostRepository;
+
+/**
+ * {@link PostService#page} keyset pagination against an in-memory stand-in for the posts
+ * query: walking every page returns each active post once, newest first, including posts
+ * that share a created_at.
+ */
+class PostServicePageTest {
+
+    private record Row(String id, String category, OffsetDateTime createdAt, OffsetDateTime expiresAt) {}
+
+    // Newest first, ties broken by id descending: the ORDER BY the query uses
+    private static final Comparator<Row> FEED_ORDER =
+        Comparator.comparing(Row::createdAt).thenComparing(Row::id).reversed();
+
+    private final List<Row> table = new ArrayList<>();
+    private final List<String> queries = new ArrayList<>();
+    private final List<Integer> limits = new ArrayList<>();
+    private PostService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                String sql = invocation.getArgument(0);
+                RowMapper<PostResponse> mapper = invocation.getArgument(1);
+                Object[] args = (Object[]) invocation.getRawArguments()[2];
+                queries.add(sql);
+                limits.add((Integer) args[args.length - 1]);
+                return select(sql, args, mapper);
+            });
+        ImageVariantRegistry images = new ImageVariantRegistry(null);
+        service = new PostService(mock(PostRepository.class), jdbcTemplate, images);
+    }
+
+    // Evaluates the page query the way Postgres would, from its positional arguments
+    private List<PostResponse> select(String sql, Object[] args, RowMapper<PostResponse> mapper) throws Exception {
+        int next = 0;
+        OffsetDateTime now = (OffsetDateTime) args[next++];
+        String category = sql.contains("category = ?") ? (String) args[next++] : null;
+        OffsetDateTime afterCreated = null;
+        String afterId = null;
+        if (sql.contains("(created_at, id) < (?, ?::uuid)")) {
+            afterCreated = (OffsetDateTime) args[next++];
+            afterId = (String) args[next++];
+        }
+        int limit = (Integer) args[next];
+
+        Stream<Row> rows = table.stream()
+            .filter(r -> r.expiresAt().isAfter(now))
+            .filter(r -> category == null || category.equals(r.category()));
+        if (afterCreated != null) {
+            OffsetDateTime c = afterCreated;
+            String id = afterId;
+            rows = rows.filter(r -> r.createdAt().isBefore(c)
+                || (r.createdAt().isEqual(c) && r.id().compareTo(id) < 0));
+        }
+        List<PostResponse> result = new ArrayList<>();
+        for (Row row : rows.sorted(FEED_ORDER).limit(limit).toList()) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("id")).thenReturn(row.id());
+            when(rs.getString("category")).thenReturn(row.category());
+            when(rs.getString("status")).thenReturn("active");
+            when(rs.getObject("created_at", OffsetDateTime.class)).thenReturn(row.createdAt());
+            when(rs.getObject("expires_at", OffsetDateTime.class)).thenReturn(row.expiresAt());
+            result.add(mapper.mapRow(rs, result.size()));
+        }
+        return result;
+    }
+
+    private Row insert(String category, OffsetDateTime createdAt) {
+        Row row = new Row(UUID.randomUUID().toString(), category, createdAt, createdAt.plusDays(7));
+        table.add(row);
+        return row;
+    }
+
+    private List<String> walk(String category, int limit) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PostService.PostPage page = service.page(category, cursor, limit);
+            assertTrue(page.posts().size() <= limit);
+            page.posts().forEach(p -> seen.add(p.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+
+    @Test
+    void walkingEveryPageReturnsEachPostOnceNewestFirst() {
+        OffsetDateTime base = OffsetDateTime.now(ZoneOffset.UTC).minusHours(1);
+        Random random = new Random(3);
+        for (int i = 0; i < 137; i++) {
+            // Only 20 distinct timestamps, so most pages end in the middle of a tie
+            insert(i % 2 == 0 ? "General Query" : "Transport Offer",
+                base.plusSeconds(random.nextInt(20)).plusNanos(123_456_000));
+        }
+
+        List<String> expected = table.stream().sorted(FEED_ORDER).map(Row::id).toList();
+        assertEquals(expected, walk(null, 10));
+        assertEquals(expected, walk("All", 7));
+        assertEquals(table.stream().filter(r -> r.category().equals("Transport Offer")).sorted(FEED_ORDER)
+            .map(Row::id).toList(), walk("Transport Offer", 9));
+    }
+
+    @Test
+    void lastPageHasNoCursorEvenWhenItIsExactlyFull() {
+        OffsetDateTime base = OffsetDateTime.now(ZoneOffset.UTC).minusHours(1);
+        for (int i = 0; i < 20; i++) insert("General Query", base.plusSeconds(i));
+
+        PostService.PostPage first = service.page(null, null, 10);
+        assertNotNull(first.nextCursor());
+        PostService.PostPage second = service.page(null, first.nextCursor(), 10);
+        assertEquals(10, second.posts().size());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void expiredPostsAreNotPaged() {
+        OffsetDateTime base = OffsetDateTime.now(ZoneOffset.UTC);
+        Row live = insert("General Query", base.minusHours(1));
+        table.add(new Row(UUID.randomUUID().toString(), "General Query", base.minusDays(8), base.minusDays(1)));
+
+        assertEquals(List.of(live.id()), walk(null, 5));
+    }
+
+    @Test
+    void firstPageHasNoKeysetAndLimitIsClamped() {
+        service.page(null, null, 0);
+        service.page(null, null, 10_000);
+        assertFalse(queries.get(0).contains("(created_at, id) <"));
+        // One row past the page size, to tell whether there is a next page
+        assertEquals(List.of(2, PostService.MAX_PAGE_SIZE + 1), limits);
+    }
+
+    @Test
+    void cursorKeepsTheTimestampToTheMicrosecondAndTheOffset() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000, ZoneOffset.ofHoursMinutes(5, 30));
+        String id = UUID.randomUUID().toString();
+        table.add(new Row(id, "General Query", createdAt.minusNanos(1_000), OffsetDateTime.now().plusDays(1)));
+
+        // Only the row one microsecond older than the cursor is returned
+        PostService.PostPage page = service.page(null, PostService.encodeCursor(createdAt, id), 5);
+        assertEquals(1, page.posts().size());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String notUuid = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("2024-05-01T10:15:30Z|nope".getBytes(StandardCharsets.US_ASCII));
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("2024-05-01T10:15:30Z".getBytes(StandardCharsets.US_ASCII));
+
+        for (String cursor : List.of("!!!", notUuid, noSeparator)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.page(null, cursor, 10), cursor);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * {@link SupabaseService#readStoredImage} against a local stand-in for the storage API.
+ */
+class SupabaseServiceReadTest {
+
+    private HttpServer server;
+    private SupabaseService service;
+    private String base;
+    private final List<String> requested = new CopyOnWriteArrayList<>();
+    private volatile byte[] body = new byte[100];
+    private volatile boolean chunked;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requested.add(exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("apikey"));
+            exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        service = new SupabaseService();
+        ReflectionTestUtils.setField(service, "supabaseUrl", base);
+        ReflectionTestUtils.setField(service, "supabaseKey", "key");
+        ReflectionTestUtils.setField(service, "bucketName", "vehicle-images");
+        ReflectionTestUtils.setField(service, "postsBucketName", "post-images");
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    private String publicUrl(String key) {
+        return base + "/storage/v1/object/public/" + key;
+    }
+
+    @Test
+    void acceptsOnlyKeysInOurBuckets() {
+        assertEquals("vehicle-images/12/a.jpg", service.storageKey(publicUrl("vehicle-images/12/a.jpg")));
+        assertEquals("post-images/p.webp", service.storageKey(publicUrl("post-images/p.webp")));
+
+        assertNull(service.storageKey("http://169.254.169.254/latest/meta-data/"));
+        assertNull(service.storageKey("http://evil.example/storage/v1/object/public/vehicle-images/a.jpg"));
+        assertNull(service.storageKey(publicUrl("rc/12/rc.jpg")));
+        assertNull(service.storageKey(publicUrl("vehicle-images")));
+        assertNull(service.storageKey(publicUrl("vehicle-images/../rc/a.jpg")));
+        assertNull(service.storageKey(publicUrl("vehicle-images/%2e%2e/rc/a.jpg")));
+        assertNull(service.storageKey(publicUrl("vehicle-images//a.jpg")));
+        assertNull(service.storageKey(publicUrl("vehicle-images/a.jpg?x=1")));
+        assertNull(service.storageKey(null));
+    }
+
+    @Test
+    void readsByKeyThroughTheAuthenticatedApi() throws IOException {
+        body = new byte[] {1, 2, 3};
+        assertArrayEquals(body, service.readStoredImage(publicUrl("vehicle-images/12/a.jpg"), 10));
+        assertEquals(List.of("/storage/v1/object/vehicle-images/12/a.jpg key"), requested);
+    }
+
+    @Test
+    void refusesForeignUrlsWithoutARequest() {
+        assertThrows(IOException.class, () -> service.readStoredImage("http://10.0.0.1/a.jpg", 10));
+        assertEquals(List.of(), requested);
+    }
+
+    @Test
+    void refusesBodiesOverTheLimit() {
+        body = new byte[100];
+        assertThrows(IOException.class, () -> service.readStoredImage(publicUrl("vehicle-images/a.jpg"), 50));
+
+        // No Content-Length to check up front; the bounded read still stops it
+        chunked = true;
+        assertThrows(IOException.class, () -> service.readStoredImage(publicUrl("vehicle-images/a.jpg"), 50));
+    }
+}
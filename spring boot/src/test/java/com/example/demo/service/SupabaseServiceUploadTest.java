@@ -0,0 +1,257 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.repository.RegistrationImageFolderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * {@link SupabaseService#uploadImagesToFolder} against a local stand-in for the storage API
+ * that answers every PUT after a fixed delay: the per-request cap, the deadline, cleanup of a
+ * failed upload, and how long N photos take with one upload in flight versus several.
+ */
+class SupabaseServiceUploadTest {
+
+    private static final String BUCKET = "vehicle-images";
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private ImageProcessor imageProcessor;
+    private SupabaseService service;
+
+    private volatile long putDelayMillis = 50;
+    // PUTs of images whose original name contains this fail with 500
+    private volatile String failing = "";
+    private final Set<String> stored = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<List<String>> deletes = new LinkedBlockingQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger variantPuts = new AtomicInteger();
+
+    @BeforeEach
+    void start() throws IOException {
+        serverThreads = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/storage/v1/object/", this::handle);
+        server.start();
+
+        imageProcessor = new ImageProcessor(2048, 0.82f, 0.78f, 2, 32, 30);
+        service = new SupabaseService();
+        ReflectionTestUtils.setField(service, "supabaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(service, "supabaseKey", "key");
+        ReflectionTestUtils.setField(service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(service, "imageProcessor", imageProcessor);
+        ReflectionTestUtils.setField(service, "imageVariantRegistry", mock(ImageVariantRegistry.class));
+        ReflectionTestUtils.setField(service, "registrationImageFolderRepository", mock(RegistrationImageFolderRepository.class));
+        ReflectionTestUtils.setField(service, "uploadConcurrency", 4);
+        ReflectionTestUtils.setField(service, "uploadDeadlineSeconds", 30L);
+    }
+
+    @AfterEach
+    void stop() {
+        service.shutdown();
+        imageProcessor.shutdown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring("/storage/v1/object/".length());
+        byte[] request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = in.readAllBytes();
+        }
+        int status = 200;
+        String answer = "{}";
+        if (exchange.getRequestMethod().equals("DELETE")) {
+            List<String> prefixes = new ArrayList<>();
+            JsonNode body = new ObjectMapper().readTree(request);
+            body.get("prefixes").forEach(p -> prefixes.add(p.asText()));
+            deletes.add(prefixes);
+            answer = "[]";
+        } else if (!isUploadCall(path)) {
+            variantPuts.incrementAndGet();
+        } else {
+            int now = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(putDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (!failing.isEmpty() && path.contains(failing)) {
+                status = 500;
+            } else {
+                stored.add(path.substring(BUCKET.length() + 1));
+            }
+        }
+        byte[] bytes = answer.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // The folder marker and the photos themselves; card and thumbnail copies come later on the image pool
+    private static boolean isUploadCall(String path) {
+        return !path.contains("_" + ImageProcessor.CARD_EDGE + ".") && !path.contains("_" + ImageProcessor.THUMB_EDGE + ".");
+    }
+
+    private static List<MultipartFile> photos(int count, String... names) throws IOException {
+        Random random = new Random(42);
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < image.getHeight(); y += 8) {
+                for (int x = 0; x < image.getWidth(); x += 8) {
+                    image.setRGB(x, y, random.nextInt(0xFFFFFF));
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            String name = i < names.length ? names[i] : "photo" + i + ".jpg";
+            files.add(new MockMultipartFile("vehicleImages", name, "image/jpeg", out.toByteArray()));
+        }
+        return files;
+    }
+
+    @Test
+    void storesEveryPhotoInOrder() throws IOException {
+        Map<String, Object> result = service.uploadImagesToFolder(photos(3, "a.jpg", "b.jpg", "c.jpg"), 7L);
+
+        assertEquals("7", result.get("folderPath"));
+        @SuppressWarnings("unchecked")
+        List<String> urls = (List<String>) result.get("imageUrls");
+        assertEquals(3, urls.size());
+        assertTrue(urls.get(0).endsWith("_a.jpg") && urls.get(1).endsWith("_b.jpg") && urls.get(2).endsWith("_c.jpg"),
+            urls.toString());
+        assertTrue(deletes.isEmpty());
+    }
+
+    @Test
+    void keepsAtMostTheConfiguredNumberOfCallsInFlight() throws IOException {
+        ReflectionTestUtils.setField(service, "uploadConcurrency", 2);
+        service.uploadImagesToFolder(photos(6), 8L);
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void oneFailedPhotoDeletesThePhotosAlreadyStored() throws Exception {
+        failing = "broken";
+        List<MultipartFile> files = photos(4, "a.jpg", "b.jpg", "broken.jpg", "d.jpg");
+
+        assertThrows(IOException.class, () -> service.uploadImagesToFolder(files, 9L));
+
+        List<String> deleted = deletes.poll(10, TimeUnit.SECONDS);
+        assertNotNull(deleted, "failed upload was not cleaned up");
+        // Photos still in flight when the failure lands may or may not have been stored by now;
+        // let the stand-in finish them, then everything that did get stored must be deleted
+        awaitIdle();
+        List<String> photosStored = stored.stream().filter(p -> !p.contains(".hidden_folder_")).toList();
+        assertFalse(photosStored.isEmpty());
+        assertTrue(photosStored.stream().noneMatch(p -> p.contains("broken")), photosStored.toString());
+        assertTrue(deleted.containsAll(photosStored), deleted + " should cover " + photosStored);
+    }
+
+    @Test
+    void deadlineFailsTheUploadAndCleansUp() throws Exception {
+        ReflectionTestUtils.setField(service, "uploadDeadlineSeconds", 1L);
+        putDelayMillis = 3000;
+
+        long start = System.nanoTime();
+        IOException e = assertThrows(IOException.class, () -> service.uploadImagesToFolder(photos(2), 10L));
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+        assertTrue(tookMillis < 2500, "waited " + tookMillis + " ms past a 1 s deadline");
+        // Cleanup waits for the cancelled calls, then removes whatever was attempted
+        assertNotNull(deletes.poll(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Before/after for N photos: one call in flight at a time (how uploads ran before they were
+     * parallel) against the default of four, with 150 ms of storage latency per call.
+     */
+    @Test
+    void parallelUploadOfEightPhotosBeatsOneAtATime() throws IOException {
+        putDelayMillis = 150;
+        List<MultipartFile> files = photos(8);
+        // Warm up ImageIO and the HTTP client
+        service.uploadImagesToFolder(files, 1L);
+        awaitVariants(16);
+
+        ReflectionTestUtils.setField(service, "uploadConcurrency", 1);
+        long sequential = timeUpload(files, 2L);
+        awaitVariants(32);
+        ReflectionTestUtils.setField(service, "uploadConcurrency", 4);
+        long parallel = timeUpload(files, 3L);
+
+        System.out.println("uploadImagesToFolder, 8 photos, 150 ms per storage call: one at a time "
+            + sequential + " ms, four in flight " + parallel + " ms");
+        // Nine calls (folder marker + 8 photos): >= 1350 ms one at a time, ~450 ms four at a time
+        assertTrue(sequential >= 1350, "sequential " + sequential + " ms");
+        assertTrue(parallel * 2 < sequential, "parallel " + parallel + " ms vs sequential " + sequential + " ms");
+        assertFalse(stored.isEmpty());
+    }
+
+    private void awaitIdle() {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (inFlight.get() > 0 && System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    // Card and thumbnail copies of earlier runs share the image pool; let them finish first
+    private void awaitVariants(int count) {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (variantPuts.get() < count && System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private long timeUpload(List<MultipartFile> files, long registrationId) throws IOException {
+        long start = System.nanoTime();
+        service.uploadImagesToFolder(files, registrationId);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.Registration;
+
+/**
+ * {@link VehicleSearchIndex} fed through upsert/remove, with a small pincode table around
+ * Pune: the pincode trie and its exact-match tier, cursors, radius search and facets.
+ */
+class VehicleSearchIndexTest {
+
+    private static final String TRUCK = "Tata 407";
+    private static final String ACE = "Tata Ace (Chhota Hathi)";
+
+    @TempDir
+    static Path geoDir;
+
+    private VehicleSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path csv = geoDir.resolve("pincodes.csv");
+        Files.writeString(csv, """
+            pincode,lat,lon
+            411001,18.5286,73.8743
+            411004,18.5158,73.8418
+            411014,18.5679,73.9143
+            410501,18.7500,73.8600
+            400001,18.9388,72.8354
+            """);
+        PincodeGeoTable geo = new PincodeGeoTable();
+        ReflectionTestUtils.setField(geo, "pincodeFile", csv.toUri().toString());
+        geo.load();
+        index = new VehicleSearchIndex(mock(JdbcTemplate.class), geo, new ImageVariantRegistry(null));
+    }
+
+    private void add(long id, long userId, String type, String pincode, String city, String membership) {
+        Registration r = new Registration();
+        r.setId(id);
+        r.setUserId(userId);
+        r.setFullName("Owner " + id);
+        r.setVehicleType(type);
+        r.setPincode(pincode);
+        r.setCity(city);
+        r.setState("Maharashtra");
+        r.setMembership(membership);
+        r.setRegistrationDate(LocalDate.now().minusYears(2));
+        index.upsert(r);
+    }
+
+    private static List<Long> ids(VehicleSearchIndex.Page page) {
+        return page.listings().stream().map(VehicleSearchIndex.Listing::id).toList();
+    }
+
+    // Every id, page by page, following nextKey until it runs out
+    private List<Long> walk(String type, String prefix, int limit) {
+        List<Long> all = new ArrayList<>();
+        Long after = null;
+        do {
+            VehicleSearchIndex.Page page = index.search(type, prefix, after, limit);
+            assertTrue(page.listings().size() <= limit);
+            all.addAll(ids(page));
+            after = page.nextKey();
+        } while (after != null);
+        return all;
+    }
+
+    @Test
+    void prefixReturnsEveryPincodeUnderItPremiumFirst() {
+        add(1, 10, TRUCK, "411001", "Pune", null);
+        add(2, 10, TRUCK, "411004", "Pune", "Premium");
+        add(3, 11, ACE, "411014", "Pune", null);
+        add(4, 12, ACE, "410501", "Lonavala", null);
+        add(5, 13, TRUCK, "400001", "Mumbai", "Premium");
+
+        // Same score otherwise, so premium first and then ascending id
+        assertEquals(List.of(2L, 1L, 3L), ids(index.search(null, "4110", null, 10)));
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.search(null, "41", null, 10)));
+        assertEquals(List.of(2L, 5L, 1L, 3L, 4L), ids(index.search(null, "", null, 10)));
+        assertEquals(List.of(), ids(index.search(null, "5", null, 10)));
+    }
+
+    @Test
+    void typeFilterWorksFromEitherSideOfTheTrie() {
+        add(1, 10, TRUCK, "411001", "Pune", null);
+        add(2, 10, TRUCK, "411004", "Pune", null);
+        add(3, 11, ACE, "411014", "Pune", null);
+        for (long id = 10; id < 30; id++) add(id, 20, ACE, "400001", "Mumbai", null);
+
+        // Fewer trucks than listings under "4": walks the type list and checks the pincode
+        assertEquals(List.of(1L, 2L), ids(index.search(TRUCK, "4", null, 10)));
+        // Fewer listings under "4110" than aces: walks the trie node and checks the type
+        assertEquals(List.of(3L), ids(index.search(ACE, "4110", null, 10)));
+        assertEquals(List.of(), ids(index.search("Crane", "", null, 10)));
+    }
+
+    @Test
+    void exactPincodeComesBeforeTheRestOfThePrefixAcrossPages() {
+        // Longer pincodes than six digits do turn up in old rows
+        add(1, 10, TRUCK, "4110011", "Pune", "Premium");
+        add(2, 10, TRUCK, "411001", "Pune", null);
+        add(3, 10, TRUCK, "4110012", "Pune", null);
+        add(4, 10, TRUCK, "411001", "Pune", null);
+        add(5, 10, TRUCK, "411001", "Pune", null);
+
+        assertEquals(List.of(2L, 4L, 5L, 1L, 3L), ids(index.search(null, "411001", null, 10)));
+        for (int limit = 1; limit <= 5; limit++) {
+            assertEquals(List.of(2L, 4L, 5L, 1L, 3L), walk(null, "411001", limit), "limit " + limit);
+        }
+    }
+
+    @Test
+    void cursorWalkSeesEveryListingOnceInOrder() {
+        for (long id = 1; id <= 47; id++) {
+            add(id, id % 5, id % 3 == 0 ? ACE : TRUCK, id % 2 == 0 ? "411001" : "411004", "Pune",
+                id % 7 == 0 ? "Premium" : null);
+        }
+        List<Long> all = ids(index.search(null, "411", null, 100));
+        assertEquals(47, all.size());
+        for (int limit : new int[] {1, 4, 10, 46, 47}) {
+            assertEquals(all, walk(null, "411", limit), "limit " + limit);
+        }
+
+        VehicleSearchIndex.Page first = index.search(null, "411", null, 10);
+        String cursor = VehicleSearchIndex.encodeCursor(first.nextKey());
+        assertEquals(first.nextKey(), VehicleSearchIndex.decodeCursor(cursor));
+        assertThrows(IllegalArgumentException.class, () -> VehicleSearchIndex.decodeCursor("***"));
+    }
+
+    @Test
+    void userPagesFollowTheSameOrder() {
+        add(1, 10, TRUCK, "411001", "Pune", null);
+        add(2, 10, ACE, "411004", "Pune", "Premium");
+        add(3, 11, ACE, "411014", "Pune", null);
+        add(4, 10, TRUCK, "400001", "Mumbai", null);
+
+        VehicleSearchIndex.Page first = index.searchByUser(10L, null, 2);
+        assertEquals(List.of(2L, 1L), ids(first));
+        VehicleSearchIndex.Page second = index.searchByUser(10L, first.nextKey(), 2);
+        assertEquals(List.of(4L), ids(second));
+        assertNull(second.nextKey());
+    }
+
+    @Test
+    void radiusSearchIsNearestFirstAndStaysInsideTheRadius() {
+        add(1, 10, TRUCK, "411004", "Pune", null);   // ~3.5 km from 411001
+        add(2, 10, TRUCK, "411001", "Pune", null);   // origin
+        add(3, 10, ACE, "411014", "Pune", null);     // ~5 km
+        add(4, 10, TRUCK, "410501", "Lonavala", null); // ~25 km
+        add(5, 10, TRUCK, "400001", "Mumbai", null);   // ~115 km, past the 100 km cap
+
+        VehicleSearchIndex.Page near = index.searchNear(null, "411001", 10, null, 10);
+        assertEquals(List.of(2L, 1L, 3L), ids(near));
+        double[] km = near.distancesKm();
+        assertEquals(0.0, km[0]);
+        assertTrue(km[0] <= km[1] && km[1] <= km[2] && km[2] <= 10, Arrays.toString(km));
+
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.searchNear(null, "411001", 50, null, 10)));
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(index.searchNear(null, "411001", 500, null, 10)));
+        assertEquals(List.of(2L, 1L, 4L), ids(index.searchNear(TRUCK, "411001", 50, null, 10)));
+        assertNull(index.searchNear(null, "999999", 10, null, 10));
+    }
+
+    @Test
+    void radiusPagesContinueFromTheCursor() {
+        add(1, 10, TRUCK, "411004", "Pune", null);
+        add(2, 10, TRUCK, "411001", "Pune", null);
+        add(3, 10, ACE, "411014", "Pune", null);
+        add(4, 10, TRUCK, "410501", "Lonavala", null);
+        add(6, 10, TRUCK, "411001", "Pune", null);
+
+        VehicleSearchIndex.Page all = index.searchNear(null, "411001", 50, null, 10);
+        List<Long> walked = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        Long after = null;
+        do {
+            VehicleSearchIndex.Page page = index.searchNear(null, "411001", 50, after, 2);
+            walked.addAll(ids(page));
+            for (double d : page.distancesKm()) distances.add(d);
+            after = page.nextKey();
+        } while (after != null);
+
+        assertEquals(ids(all), walked);
+        assertArrayEquals(all.distancesKm(), distances.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    @Test
+    void facetsCountTheListingsUnderAPrefixAndFollowRemovals() {
+        add(1, 10, TRUCK, "411001", "Pune", null);
+        add(2, 10, TRUCK, "411004", "Pune", "Premium");
+        add(3, 11, ACE, "411014", "Pune", null);
+        add(4, 12, ACE, "410501", "Lonavala", " ");
+        add(5, 13, TRUCK, "400001", "Mumbai", "Premium");
+
+        VehicleSearchIndex.Facets facets = index.facets("41");
+        assertEquals(4, facets.total());
+        assertEquals(ordered(ACE, 2, TRUCK, 2), facets.vehicleTypes());
+        assertEquals(ordered("Pune", 3, "Lonavala", 1), facets.cities());
+        assertEquals(ordered("Standard", 3, "Premium", 1), facets.memberships());
+
+        index.remove(4L);
+        index.remove(2L);
+        facets = index.facets("41");
+        assertEquals(2, facets.total());
+        assertEquals(ordered(ACE, 1, TRUCK, 1), facets.vehicleTypes());
+        assertEquals(ordered("Pune", 2), facets.cities());
+        assertEquals(ordered("Standard", 2), facets.memberships());
+        assertEquals(0, index.facets("4105").total());
+
+        // The index-wide fallback counts the same way
+        assertEquals(index.facets("").vehicleTypes(),
+            VehicleSearchIndex.facetsOf(index.search(null, "", null, 100).listings()).vehicleTypes());
+    }
+
+    @Test
+    void upsertMovesAListingAndRemoveDropsIt() {
+        add(1, 10, TRUCK, "411001", "Pune", null);
+        add(1, 10, TRUCK, "400001", "Mumbai", null);
+
+        assertEquals(List.of(), ids(index.search(null, "411", null, 10)));
+        assertEquals(List.of(1L), ids(index.search(null, "400", null, 10)));
+        assertEquals(1, index.count(TRUCK, "400001"));
+        assertEquals(List.of(1L), ids(index.searchNear(null, "400001", 5, null, 10)));
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+        assertEquals(List.of(), ids(index.searchNear(null, "400001", 5, null, 10)));
+    }
+
+    // Expected facet map, in the order given (descending count, then name)
+    private static Map<String, Integer> ordered(Object... pairs) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) map.put((String) pairs[i], (Integer) pairs[i + 1]);
+        return map;
+    }
+}
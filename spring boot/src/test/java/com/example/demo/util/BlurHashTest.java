@@ -0,0 +1,81 @@
+package com.example.demo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link BlurHash#encode} checked against the format at https://blurha.sh: header digits,
+ * length, the DC colour, and the sign of an AC component.
+ */
+class BlurHashTest {
+
+    private static final String DIGITS =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private static int decode83(String s) {
+        int value = 0;
+        for (char c : s.toCharArray()) value = value * 83 + DIGITS.indexOf(c);
+        return value;
+    }
+
+    private static BufferedImage solid(int rgb) {
+        BufferedImage image = new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) image.setRGB(x, y, rgb);
+        }
+        return image;
+    }
+
+    @Test
+    void headerAndLengthFollowTheComponentCount() {
+        String hash = BlurHash.encode(solid(0x336699), 4, 3);
+        // 1 size flag + 1 maximum + 4 DC + 2 per AC component
+        assertEquals(6 + 2 * (4 * 3 - 1), hash.length());
+        assertEquals((4 - 1) + (3 - 1) * 9, decode83(hash.substring(0, 1)));
+        assertEquals(6, BlurHash.encode(solid(0x336699), 1, 1).length());
+    }
+
+    @Test
+    void solidImageKeepsItsColour() {
+        String hash = BlurHash.encode(solid(0xC86432), 4, 3);
+
+        int dc = decode83(hash.substring(2, 6));
+        assertEquals(0xC8, dc >> 16, 1);
+        assertEquals(0x64, (dc >> 8) & 0xff, 1);
+        assertEquals(0x32, dc & 0xff, 1);
+    }
+
+    @Test
+    void mirroringTheImageFlipsTheFirstHorizontalComponent() {
+        // cos basis is positive on the left, so a bright right half gives a negative component
+        int brightRight = quantisedRed(BlurHash.encode(halves(0x000000, 0xFFFFFF), 4, 3), 1);
+        int brightLeft = quantisedRed(BlurHash.encode(halves(0xFFFFFF, 0x000000), 4, 3), 1);
+        assertTrue(brightRight < 9, "bright right " + brightRight);
+        assertTrue(brightLeft > 9, "bright left " + brightLeft);
+    }
+
+    private static BufferedImage halves(int left, int right) {
+        BufferedImage image = new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) image.setRGB(x, y, x < 8 ? left : right);
+        }
+        return image;
+    }
+
+    // Red channel, 0..18 with 9 meaning zero, of AC component k (1-based, row-major)
+    private static int quantisedRed(String hash, int k) {
+        int start = 6 + 2 * (k - 1);
+        return decode83(hash.substring(start, start + 2)) / (19 * 19);
+    }
+
+    @Test
+    void rejectsComponentCountsOutsideOneToNine() {
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(solid(0), 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> BlurHash.encode(solid(0), 4, 10));
+    }
+}
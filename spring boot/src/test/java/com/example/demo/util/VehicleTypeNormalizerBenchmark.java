@@ -0,0 +1,71 @@
+package com.example.demo.util;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.example.demo.MicroBench;
+
+/**
+ * {@link VehicleTypeNormalizer#canonical} against the lookup it replaced: an exact map hit,
+ * then a {@code contains} scan over every alias in table order. Both sides use the same
+ * alias table so only the matching strategy differs.
+ */
+public final class VehicleTypeNormalizerBenchmark {
+
+    private static final String[] INPUTS = {
+        "tata 407 truck",
+        "chota hathi",
+        "e rickshaw loader",
+        "Packers & Movers",
+        "need a 12 wheeler for sand",
+        "Tipper",
+        "something unknown entirely",
+        "refrigerated van for fish",
+    };
+
+    private static final int OPS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        Field field = VehicleTypeNormalizer.class.getDeclaredField("ALIASES");
+        field.setAccessible(true);
+        for (String[] alias : (String[][]) field.get(null)) {
+            aliases.putIfAbsent(alias[0], alias[1]);
+        }
+        System.out.println(aliases.size() + " aliases, " + INPUTS.length + " inputs");
+
+        double before = MicroBench.measure("before: exact hit, then contains scan", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                MicroBench.consume(scan(aliases, INPUTS[i % INPUTS.length]));
+            }
+        });
+        double after = MicroBench.measure("after: VehicleTypeNormalizer.canonical", OPS, ops -> {
+            for (int i = 0; i < ops; i++) {
+                MicroBench.consume(VehicleTypeNormalizer.canonical(INPUTS[i % INPUTS.length]));
+            }
+        });
+        System.out.printf("mixed inputs: before/after %.2f%n", before / after);
+
+        // No alias matches: the scan tries every alias, the automaton still reads the input once
+        String miss = "need something to shift a piano";
+        before = MicroBench.measure("before, no match", OPS, ops -> {
+            for (int i = 0; i < ops; i++) MicroBench.consume(scan(aliases, miss));
+        });
+        after = MicroBench.measure("after, no match", OPS, ops -> {
+            for (int i = 0; i < ops; i++) MicroBench.consume(VehicleTypeNormalizer.canonical(miss));
+        });
+        System.out.printf("no match: before/after %.2f%n", before / after);
+    }
+
+    private static String scan(Map<String, String> aliases, String input) {
+        String key = input.trim().toLowerCase(Locale.ROOT);
+        String exact = aliases.get(key);
+        if (exact != null) return exact;
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            if (key.contains(alias.getKey())) return alias.getValue();
+        }
+        return null;
+    }
+}